@@ -23,6 +23,7 @@ dependencies {
     testImplementation("commons-io:commons-io:2.14.0")
     testImplementation("org.testng:testng:7.7.1")
     testImplementation("org.mockito:mockito-core:4.11.0")
+    testImplementation("com.fasterxml.jackson.core:jackson-databind:2.18.6")
     "functionalTestImplementation"("com.fasterxml.jackson.core:jackson-databind:2.18.6")
     "functionalTestImplementation"("commons-io:commons-io:2.14.0")
     "functionalTestImplementation"("org.testng:testng:7.7.1")
@@ -59,6 +60,23 @@ tasks.withType<Test>().configureEach {
     }
 }
 
+// The benchmarks report timings and heap readings, and are run on demand by the benchmark task
+tasks.test {
+    options {
+        (this as org.gradle.api.tasks.testing.testng.TestNGOptions).excludeGroups("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    options {
+        (this as org.gradle.api.tasks.testing.testng.TestNGOptions).includeGroups("benchmark")
+    }
+}
+
 val functionalTestTask = tasks.register<Test>("functionalTest") {
     description = "Runs the functional tests."
     group = "verification"
@@ -0,0 +1,67 @@
+package com.jfrog.tasks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jfrog.GradleDepTreeResults;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.jfrog.tasks.Consts.BASIC;
+import static com.jfrog.tasks.Consts.TEST_DIR;
+import static com.jfrog.tasks.GenerateDepTrees.COMPACT_OUTPUT;
+import static com.jfrog.tasks.Utils.*;
+import static org.testng.Assert.*;
+
+/**
+ * Functional tests for the compact output mode, using the project under resources/basic/
+ **/
+public class CompactOutputTest extends FunctionalTestBase {
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        setup(BASIC);
+    }
+
+    @Test(dataProvider = "gradleVersions")
+    public void testCompactOutput(String gradleVersion) throws IOException {
+        Path outputFile = Files.createTempFile("gradle-deps-tree-test", "");
+        Path outputDir = TEST_DIR.toPath().resolve("build").resolve("gradle-dep-tree");
+        try {
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile));
+            Path prettyFile = getOnlyOutputFile(outputDir);
+            String pretty = new String(Files.readAllBytes(prettyFile), StandardCharsets.UTF_8);
+
+            // Changing the output mode must rerun the task
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, "-D" + COMPACT_OUTPUT + "=true"));
+            String compact = new String(Files.readAllBytes(getOnlyOutputFile(outputDir)), StandardCharsets.UTF_8);
+
+            assertFalse(compact.contains("\n"), "The compact output must have no newlines");
+            assertFalse(compact.contains(" "), "The compact output must have no indentation");
+            assertTrue(compact.length() < pretty.length());
+
+            // Jackson reads both forms into identical results
+            GradleDepTreeResults prettyResults = objectMapper.readValue(pretty, GradleDepTreeResults.class);
+            GradleDepTreeResults compactResults = objectMapper.readValue(compact, GradleDepTreeResults.class);
+            JsonNode expected = objectMapper.valueToTree(prettyResults);
+            assertEquals(objectMapper.valueToTree(compactResults), expected);
+            assertDirectChild(compactResults, "junit:junit:4.12", "testImplementation", false);
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    private static Path getOnlyOutputFile(Path outputDir) throws IOException {
+        try (Stream<Path> files = Files.list(outputDir)) {
+            List<Path> outputFiles = files.collect(Collectors.toList());
+            assertEquals(outputFiles.size(), 1);
+            return outputFiles.get(0);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.jfrog.tasks;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.testkit.runner.BuildResult;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.jfrog.tasks.Consts.MULTI;
+import static com.jfrog.tasks.Consts.TEST_DIR;
+import static com.jfrog.tasks.GenerateDepTrees.INCLUDE_ALL_BUILD_FILES;
+import static com.jfrog.tasks.GenerateDepTrees.INCREMENTAL_CONFIGURATIONS;
+import static com.jfrog.tasks.GenerateDepTrees.RESOLUTION_CACHE;
+import static com.jfrog.tasks.GenerateDepTrees.RESOLUTION_CACHE_DIR;
+import static com.jfrog.tasks.Utils.assertSuccess;
+import static com.jfrog.tasks.Utils.assertUpToDate;
+import static com.jfrog.tasks.Utils.runGenerateDepTrees;
+import static org.testng.Assert.*;
+
+/**
+ * Functional tests for the configuration cache, using the project under resources/multi/
+ **/
+public class ConfigurationCacheTest extends FunctionalTestBase {
+    // Printed while the projects are configured, which a run reusing the configuration cache entry skips
+    private static final String CONFIGURING_API = "Configuring the api project";
+    private static final Pattern RESOLUTION_CACHE_COUNTS = Pattern.compile("Resolution cache .*: (\\d+) hits, (\\d+) misses");
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        setup(MULTI);
+    }
+
+    @DataProvider
+    public Object[][] configurationCacheGradleVersions() {
+        // The resolution results are stored in the configuration cache since Gradle 7.4
+        return new Object[][]{{"7.4.2"}, {"7.6"}, {"8.14.2"}};
+    }
+
+    @Test(dataProvider = "configurationCacheGradleVersions")
+    public void testConfigurationCacheReuse(String gradleVersion) throws IOException {
+        Path outputFile = Files.createTempFile("gradle-deps-tree-test", "");
+        Path cacheDir = Files.createTempDirectory("gradle-deps-tree-cache");
+        String[] arguments = {"--configuration-cache", "-D" + INCLUDE_ALL_BUILD_FILES + "=true",
+                "-D" + RESOLUTION_CACHE + "=true", "-D" + RESOLUTION_CACHE_DIR + "=" + cacheDir.toAbsolutePath(),
+                "-D" + INCREMENTAL_CONFIGURATIONS + "=true"};
+        Path apiBuildFile = TEST_DIR.toPath().resolve("api").resolve("build.gradle");
+        try {
+            Files.write(apiBuildFile, ("\nprintln '" + CONFIGURING_API + "'\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+            // Store the entry, and resolve the configurations
+            BuildResult result = runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments);
+            assertSuccess(result);
+            assertTrue(result.getOutput().contains(CONFIGURING_API));
+            File[] entries = TEST_DIR.toPath().resolve(".gradle").resolve("configuration-cache").toFile().listFiles();
+            assertNotNull(entries);
+            assertTrue(entries.length > 0);
+            List<String> trees = readTrees(outputFile);
+
+            // Reuse the entry without configuring the projects
+            result = runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments);
+            assertUpToDate(result);
+            assertFalse(result.getOutput().contains(CONFIGURING_API));
+            assertEquals(readTrees(outputFile), trees);
+
+            // Store a new entry, which leaves the declared dependencies and the task up-to-date
+            Files.write(apiBuildFile, "\n// Invalidate the configuration cache entry\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            result = runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments);
+            assertUpToDate(result);
+            assertTrue(result.getOutput().contains(CONFIGURING_API));
+            assertEquals(readTrees(outputFile), trees);
+
+            // Replay the stored configurations when the task runs
+            String[] rerunArguments = Arrays.copyOf(arguments, arguments.length + 1);
+            rerunArguments[arguments.length] = "--rerun-tasks";
+            result = runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, rerunArguments);
+            assertSuccess(result);
+            assertEquals(readTrees(outputFile), trees);
+        } finally {
+            Files.deleteIfExists(outputFile);
+            FileUtils.deleteDirectory(cacheDir.toFile());
+        }
+    }
+
+    @Test(dataProvider = "gradleVersions")
+    public void testResolutionCacheHits(String gradleVersion) throws IOException {
+        Path outputFile = Files.createTempFile("gradle-deps-tree-test", "");
+        Path cacheDir = Files.createTempDirectory("gradle-deps-tree-cache");
+        // The hits are logged at info level. The configuration cache entry, stored by Gradle 7.4 and above, is reused
+        // by the second run, which looks up the resolution cache when the task runs.
+        String[] arguments = {"--info", "-D" + INCLUDE_ALL_BUILD_FILES + "=true", "-D" + RESOLUTION_CACHE + "=true",
+                "-D" + RESOLUTION_CACHE_DIR + "=" + cacheDir.toAbsolutePath()};
+        try {
+            // Resolve the configurations and store them in the resolution cache
+            BuildResult result = runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments);
+            assertSuccess(result);
+            assertTrue(getResolutionCacheCounts(result)[1] > 0, result.getOutput());
+            List<String> trees = readTrees(outputFile);
+
+            // Rerun the task, and replay the configurations from the resolution cache
+            String[] rerunArguments = Arrays.copyOf(arguments, arguments.length + 1);
+            rerunArguments[arguments.length] = "--rerun-tasks";
+            result = runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, rerunArguments);
+            assertSuccess(result);
+            int[] counts = getResolutionCacheCounts(result);
+            assertTrue(counts[0] > 0, result.getOutput());
+            assertEquals(counts[1], 0, result.getOutput());
+            assertEquals(readTrees(outputFile), trees);
+        } finally {
+            Files.deleteIfExists(outputFile);
+            FileUtils.deleteDirectory(cacheDir.toFile());
+        }
+    }
+
+    /**
+     * Sum the resolution cache hits and misses logged by the tasks of all projects.
+     *
+     * @param result - The build result
+     * @return the hits and the misses.
+     */
+    private static int[] getResolutionCacheCounts(BuildResult result) {
+        int[] counts = new int[2];
+        Matcher matcher = RESOLUTION_CACHE_COUNTS.matcher(result.getOutput());
+        while (matcher.find()) {
+            counts[0] += Integer.parseInt(matcher.group(1));
+            counts[1] += Integer.parseInt(matcher.group(2));
+        }
+        return counts;
+    }
+
+    private static List<String> readTrees(Path outputFile) throws IOException {
+        List<String> trees = new ArrayList<>();
+        for (String treeFile : Files.readAllLines(outputFile)) {
+            trees.add(new String(Files.readAllBytes(Paths.get(treeFile)), StandardCharsets.UTF_8));
+        }
+        return trees;
+    }
+}
@@ -23,4 +23,6 @@ public class Consts {
     static final Path PROJECT_DEP_NO_VERSION = PROJECTS_ROOT.resolve("projectDepNoVersion");
     // Root container + subproject layout (custom-applications + CALINDI).
     static final Path ROOT_CONTAINER = PROJECTS_ROOT.resolve("root-container");
+    // Subprojects sharing their name (app:core + lib:core).
+    static final Path DUPLICATE_NAMES = PROJECTS_ROOT.resolve("duplicate-names");
 }
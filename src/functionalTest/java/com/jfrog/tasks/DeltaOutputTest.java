@@ -0,0 +1,77 @@
+package com.jfrog.tasks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+
+import static com.jfrog.tasks.Consts.MULTI;
+import static com.jfrog.tasks.Consts.TEST_DIR;
+import static com.jfrog.tasks.GenerateDepTrees.DELTA_FILE_SUFFIX;
+import static com.jfrog.tasks.GenerateDepTrees.DELTA_OUTPUT;
+import static com.jfrog.tasks.GenerateDepTrees.INCLUDE_ALL_BUILD_FILES;
+import static com.jfrog.tasks.Utils.assertSuccess;
+import static com.jfrog.tasks.Utils.objectMapper;
+import static com.jfrog.tasks.Utils.runGenerateDepTrees;
+import static org.testng.Assert.*;
+
+/**
+ * Functional tests for the delta output, using the project under resources/multi/
+ **/
+public class DeltaOutputTest extends FunctionalTestBase {
+    private static final String ADDED_DEPENDENCY = "org.example:not-there:1.0";
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        setup(MULTI);
+    }
+
+    @Test(dataProvider = "gradleVersions")
+    public void testDeltaOutput(String gradleVersion) throws IOException {
+        Path outputFile = Files.createTempFile("gradle-deps-tree-test", "");
+        String[] arguments = {"-D" + INCLUDE_ALL_BUILD_FILES + "=true", "-D" + DELTA_OUTPUT + "=true"};
+        File apiDeltaFile = TEST_DIR.toPath().resolve("build").resolve("gradle-dep-tree")
+                .resolve(Base64.getEncoder().encodeToString("api".getBytes(StandardCharsets.UTF_8)) + DELTA_FILE_SUFFIX).toFile();
+        try {
+            // The first run has no previous trees, so each delta adds the whole tree
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments));
+            List<String> summaryPaths = Files.readAllLines(outputFile);
+            assertEquals(summaryPaths.size(), 10);
+            for (int i = 0; i < summaryPaths.size(); i += 2) {
+                // The summary lists the delta file of each project right after its tree
+                assertEquals(summaryPaths.get(i + 1), summaryPaths.get(i) + DELTA_FILE_SUFFIX);
+            }
+            JsonNode delta = objectMapper.readTree(apiDeltaFile);
+            assertFalse(delta.has("previousRoot"));
+            assertTrue(delta.get("addedNodes").has(delta.get("root").asText()));
+
+            // Add a dependency to the api project
+            Files.write(TEST_DIR.toPath().resolve("api").resolve("build.gradle"),
+                    ("\ndependencies { implementation '" + ADDED_DEPENDENCY + "' }\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments));
+            delta = objectMapper.readTree(apiDeltaFile);
+            assertEquals(delta.get("previousRoot").asText(), delta.get("root").asText());
+            assertEquals(delta.get("addedNodes").size(), 1);
+            assertTrue(delta.get("addedNodes").has(ADDED_DEPENDENCY));
+            assertEquals(delta.get("addedEdges").get(delta.get("root").asText()).get(0).asText(), ADDED_DEPENDENCY);
+            assertEquals(delta.get("removedNodes").size(), 0);
+
+            // Nothing changed since the previous run, but the task is never up-to-date with the delta output
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments));
+            delta = objectMapper.readTree(apiDeltaFile);
+            for (String member : new String[]{"addedNodes", "changedNodes", "removedNodes", "addedEdges", "removedEdges"}) {
+                assertEquals(delta.get(member).size(), 0, member);
+            }
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jfrog.tasks;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static com.jfrog.tasks.Consts.MULTI;
+import static com.jfrog.tasks.Consts.TEST_DIR;
+import static com.jfrog.tasks.GenerateDepTrees.INCLUDE_ALL_BUILD_FILES;
+import static com.jfrog.tasks.Utils.assertSuccess;
+import static com.jfrog.tasks.Utils.runGenerateDepTrees;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+/**
+ * Functional tests for the byte stability of the output, using the project under resources/multi/
+ **/
+public class DeterministicOutputTest extends FunctionalTestBase {
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        setup(MULTI);
+    }
+
+    @Test(dataProvider = "gradleVersions")
+    public void testIdenticalOutputHashes(String gradleVersion) throws IOException, NoSuchAlgorithmException {
+        Path outputFile = Files.createTempFile("gradle-deps-tree-test", "");
+        Path outputDir = TEST_DIR.toPath().resolve("build").resolve("gradle-dep-tree");
+        try {
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, "-D" + INCLUDE_ALL_BUILD_FILES + "=true"));
+            Map<String, String> firstHashes = hashFiles(outputDir);
+            assertFalse(firstHashes.isEmpty());
+
+            // Run the task again, ignoring the up-to-date checks
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, "-D" + INCLUDE_ALL_BUILD_FILES + "=true", "--rerun-tasks"));
+            assertEquals(hashFiles(outputDir), firstHashes);
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    private static Map<String, String> hashFiles(Path outputDir) throws IOException, NoSuchAlgorithmException {
+        Map<String, String> hashes = new TreeMap<>();
+        try (Stream<Path> files = Files.list(outputDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+                hashes.put(file.getFileName().toString(), new BigInteger(1, digest).toString(16));
+            }
+        }
+        return hashes;
+    }
+}
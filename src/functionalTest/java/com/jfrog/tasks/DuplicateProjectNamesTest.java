@@ -0,0 +1,53 @@
+package com.jfrog.tasks;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.jfrog.tasks.Consts.DUPLICATE_NAMES;
+import static com.jfrog.tasks.Consts.TEST_DIR;
+import static com.jfrog.tasks.GenerateDepTrees.INCLUDE_ALL_BUILD_FILES;
+import static com.jfrog.tasks.Utils.assertSuccess;
+import static com.jfrog.tasks.Utils.runGenerateDepTrees;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Projects sharing their name (app:core + lib:core) are written to files named after their paths, and the other projects
+ * to files named after their names.
+ */
+public class DuplicateProjectNamesTest extends FunctionalTestBase {
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        setup(DUPLICATE_NAMES);
+    }
+
+    @Test(dataProvider = "gradleVersions")
+    public void testDuplicateProjectNames(String gradleVersion) throws IOException {
+        Path outputFile = Files.createTempFile("gradle-deps-tree-duplicate-names", "");
+        try {
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, "-D" + INCLUDE_ALL_BUILD_FILES + "=true"));
+
+            Set<String> expectedNames = new HashSet<>();
+            for (String name : new String[]{"duplicate-names", "app", "lib", ":app:core", ":lib:core"}) {
+                expectedNames.add(Base64.getEncoder().encodeToString(name.getBytes(StandardCharsets.UTF_8)));
+            }
+            Path outputDir = TEST_DIR.toPath().resolve("build").resolve("gradle-dep-tree");
+            try (Stream<Path> files = Files.list(outputDir)) {
+                Set<String> actualNames = files.map(p -> p.getFileName().toString()).collect(Collectors.toSet());
+                assertEquals(actualNames, expectedNames);
+            }
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.jfrog.tasks;
+
+import com.jfrog.GradleDepTreeResults;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static com.jfrog.tasks.Consts.MULTI;
+import static com.jfrog.tasks.Consts.TEST_DIR;
+import static com.jfrog.tasks.GenerateDepTrees.INCLUDE_ALL_BUILD_FILES;
+import static com.jfrog.tasks.GenerateDepTrees.INCREMENTAL_CONFIGURATIONS;
+import static com.jfrog.tasks.Utils.assertDirectChild;
+import static com.jfrog.tasks.Utils.assertSuccess;
+import static com.jfrog.tasks.Utils.objectMapper;
+import static com.jfrog.tasks.Utils.runGenerateDepTrees;
+
+/**
+ * Functional tests for the resolution rules, which the up-to-date checks can't describe, using the project under resources/multi/
+ **/
+public class ResolutionRulesTest extends FunctionalTestBase {
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        setup(MULTI);
+    }
+
+    @Test(dataProvider = "gradleVersions")
+    public void testEachDependencyRuleChange(String gradleVersion) throws IOException {
+        assertRuleChangeIsDetected(gradleVersion);
+    }
+
+    @Test(dataProvider = "gradleVersions")
+    public void testEachDependencyRuleChange_incrementalConfigurations(String gradleVersion) throws IOException {
+        // The configurations with rules are never stored, so the new rule is not hidden by the stored trees
+        assertRuleChangeIsDetected(gradleVersion, "-D" + INCREMENTAL_CONFIGURATIONS + "=true");
+    }
+
+    private void assertRuleChangeIsDetected(String gradleVersion, String... extraArguments) throws IOException {
+        Path outputFile = Files.createTempFile("gradle-deps-tree-test", "");
+        List<String> argumentsList = new ArrayList<>(Arrays.asList(extraArguments));
+        argumentsList.add("-D" + INCLUDE_ALL_BUILD_FILES + "=true");
+        String[] arguments = argumentsList.toArray(new String[0]);
+        Path rulesScript = TEST_DIR.toPath().resolve("gradle").resolve("rules.gradle");
+        File apiOutputFile = TEST_DIR.toPath().resolve("build").resolve("gradle-dep-tree")
+                .resolve(Base64.getEncoder().encodeToString("api".getBytes(StandardCharsets.UTF_8))).toFile();
+        try {
+            // Apply a script plugin selecting the version of junit with an eachDependency rule
+            Files.createDirectories(rulesScript.getParent());
+            writeRulesScript(rulesScript, "4.12");
+            Files.write(TEST_DIR.toPath().resolve("api").resolve("build.gradle"),
+                    "\napply from: \"$rootDir/gradle/rules.gradle\"\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments));
+            assertDirectChild(objectMapper.readValue(apiOutputFile, GradleDepTreeResults.class), "junit:junit:4.12", "testImplementation", false);
+            // The rule is code, so the task runs every time
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments));
+
+            // Change only the version selected by the rule, which doesn't change the declared dependencies
+            writeRulesScript(rulesScript, "4.13.2");
+            assertSuccess(runGenerateDepTrees(gradleVersion, TEST_DIR, outputFile, arguments));
+            assertDirectChild(objectMapper.readValue(apiOutputFile, GradleDepTreeResults.class), "junit:junit:4.13.2", "testImplementation", false);
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    private static void writeRulesScript(Path rulesScript, String junitVersion) throws IOException {
+        String script = "configurations.all {\n" +
+                "    resolutionStrategy.eachDependency { details ->\n" +
+                "        if (details.requested.name == 'junit') {\n" +
+                "            details.useVersion '" + junitVersion + "'\n" +
+                "        }\n" +
+                "    }\n" +
+                "}\n";
+        Files.write(rulesScript, script.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -14,6 +14,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -76,11 +78,12 @@ public class Utils {
                 assertUpToDate(result);
                 assertOutput(outputFile);
 
-                // Make a change in build.gradle file and make sure the cache was invalidated after running generateDepTrees
+                // Make a change in build.gradle file that leaves the declared dependencies unchanged, and make sure the task
+                // is still up-to-date
                 // jfrog-ignore: this is a test
                 Files.write(projectDir.toPath().resolve("build.gradle"), "\n".getBytes(), StandardOpenOption.APPEND);
                 result = runGenerateDepTrees(gradleVersion, projectDir, outputFile, includeAllBuildFiles);
-                assertSuccess(result);
+                assertUpToDate(result);
                 assertOutput(outputFile);
             }
         } finally {
@@ -168,12 +171,27 @@ public class Utils {
      * @return the build results.
      */
     private static BuildResult runGenerateDepTrees(String gradleVersion, File projectDir, Path outputFile, boolean includeAllBuildFiles) {
+        return runGenerateDepTrees(gradleVersion, projectDir, outputFile, "-D" + INCLUDE_ALL_BUILD_FILES + "=" + includeAllBuildFiles);
+    }
+
+    /**
+     * Run Gradle process with the GradleRunner.
+     *
+     * @param gradleVersion - The Gradle version to use
+     * @param projectDir    - The project directory
+     * @param outputFile    - The output file
+     * @param arguments     - Additional arguments, such as system properties
+     * @return the build results.
+     */
+    static BuildResult runGenerateDepTrees(String gradleVersion, File projectDir, Path outputFile, String... arguments) {
+        List<String> allArguments = new ArrayList<>(Arrays.asList("generateDepTrees", "-q", "-D" + OUTPUT_FILE_PROPERTY + "=" + outputFile.toAbsolutePath()));
+        allArguments.addAll(Arrays.asList(arguments));
         return GradleRunner.create()
                 .withGradleVersion(gradleVersion)
                 .withProjectDir(projectDir)
                 .withPluginClasspath()
                 .withDebug(true)
-                .withArguments("generateDepTrees", "-q", "-D" + INCLUDE_ALL_BUILD_FILES + "=" + includeAllBuildFiles, "-D" + OUTPUT_FILE_PROPERTY + "=" + outputFile.toAbsolutePath())
+                .withArguments(allArguments)
                 .build();
     }
 }
@@ -0,0 +1,240 @@
+package com.jfrog;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read dependency trees written in the binary format by {@link Utils#saveToFileAsBinary(File, FrozenDependencyGraph)}.
+ * The generateDepTrees task names the binary trees with the {@link OutputFormat#BINARY} extension.
+ * <p>
+ * The format is:
+ * <ul>
+ * <li>Header: the {@link #MAGIC} bytes, a {@link #VERSION} byte, then varints of the number of nodes, the number of
+ * configuration names and the index of the root node.</li>
+ * <li>String table: the module IDs of the nodes followed by the configuration names, each as a varint of its UTF-8
+ * length followed by its UTF-8 bytes.</li>
+ * <li>Nodes: for each node, a flags byte ({@link #UNRESOLVED_FLAG}), a varint count of children followed by the
+ * sorted node indices of the children, and a varint count of configurations followed by the sorted configuration
+ * indices. Each index list is delta-encoded: every index is written as a varint of its difference from the previous
+ * one.</li>
+ * </ul>
+ * Varints are unsigned LEB128: 7 bits per byte, least significant group first.
+ */
+public class BinaryDepTreeReader {
+    static final byte[] MAGIC = {'G', 'D', 'T', 'B'};
+    static final int VERSION = 1;
+    static final int UNRESOLVED_FLAG = 1;
+
+    /**
+     * @param inputFile a dependency tree file in the binary format. Files with the {@link Utils#GZIP_EXTENSION}
+     *                  extension are decompressed.
+     * @return the dependency tree.
+     * @throws IOException if the file can't be read or is not a valid dependency tree.
+     */
+    public static GradleDepTreeResults read(File inputFile) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(inputFile.toPath())) {
+            if (inputFile.getName().endsWith(Utils.GZIP_EXTENSION)) {
+                return read(new GZIPInputStream(inputStream));
+            }
+            return read(inputStream);
+        }
+    }
+
+    /**
+     * @param inputStream a dependency tree in the binary format. The stream is not closed.
+     * @return the dependency tree.
+     * @throws IOException if the stream can't be read or is not a valid dependency tree.
+     */
+    public static GradleDepTreeResults read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        Header header = readHeader(in);
+        int nodesCount = header.ids.length;
+        int configurationsCount = header.configurationNames.length;
+        String[] ids = header.ids;
+        // Configuration index == symbol, so that the configurations of the nodes are copied as bitsets
+        SymbolTable configurationNames = new SymbolTable();
+        for (String configurationName : header.configurationNames) {
+            configurationNames.intern(configurationName);
+        }
+
+        Map<String, GradleDependencyNode> nodes = new HashMap<>(nodesCount * 2);
+        BitSet configurations = new BitSet(configurationsCount);
+        for (int node = 0; node < nodesCount; node++) {
+            GradleDependencyNode dependencyNode = new GradleDependencyNode(configurationNames);
+            dependencyNode.setUnresolved((in.readUnsignedByte() & UNRESOLVED_FLAG) != 0);
+            int childrenCount = readVarint(in);
+            for (int i = 0, child = 0; i < childrenCount; i++) {
+                child += readVarint(in);
+                dependencyNode.getChildren().add(ids[checkIndex(child, nodesCount)]);
+            }
+            int nodeConfigurationsCount = readVarint(in);
+            configurations.clear();
+            for (int i = 0, configuration = 0; i < nodeConfigurationsCount; i++) {
+                configuration += readVarint(in);
+                configurations.set(checkIndex(configuration, configurationsCount));
+            }
+            dependencyNode.addConfigurationSymbols(configurations);
+            nodes.put(ids[node], dependencyNode);
+        }
+        return new GradleDepTreeResults(ids[header.root], nodes);
+    }
+
+    /**
+     * Read a dependency tree into its frozen form, without building the map-based results.
+     *
+     * @param inputFile a dependency tree file in the binary format. Files with the {@link Utils#GZIP_EXTENSION}
+     *                  extension are decompressed.
+     * @return the frozen dependency graph.
+     * @throws IOException if the file can't be read or is not a valid dependency tree.
+     */
+    public static FrozenDependencyGraph readGraph(File inputFile) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(inputFile.toPath())) {
+            if (inputFile.getName().endsWith(Utils.GZIP_EXTENSION)) {
+                return readGraph(new GZIPInputStream(inputStream));
+            }
+            return readGraph(inputStream);
+        }
+    }
+
+    /**
+     * @param inputStream a dependency tree in the binary format. The stream is not closed.
+     * @return the frozen dependency graph.
+     * @throws IOException if the stream can't be read or is not a valid dependency tree.
+     */
+    public static FrozenDependencyGraph readGraph(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        Header header = readHeader(in);
+        int nodesCount = header.ids.length;
+        int configurationsCount = header.configurationNames.length;
+        // The frozen graph looks up nodes and configurations by binary search
+        checkSorted(header.ids);
+        checkSorted(header.configurationNames);
+        int[] childOffsets = new int[nodesCount + 1];
+        int[] childTargets = new int[16];
+        int[] configurationOffsets = new int[nodesCount + 1];
+        int[] configurationTargets = new int[16];
+        BitSet unresolved = new BitSet(nodesCount);
+        for (int node = 0; node < nodesCount; node++) {
+            unresolved.set(node, (in.readUnsignedByte() & UNRESOLVED_FLAG) != 0);
+            int childrenCount = readVarint(in);
+            int childStart = childOffsets[node];
+            childTargets = ensureCapacity(childTargets, childStart + childrenCount);
+            for (int i = 0, child = 0; i < childrenCount; i++) {
+                child += readVarint(in);
+                childTargets[childStart + i] = checkIndex(child, nodesCount);
+            }
+            childOffsets[node + 1] = childStart + childrenCount;
+            int nodeConfigurationsCount = readVarint(in);
+            int configurationStart = configurationOffsets[node];
+            configurationTargets = ensureCapacity(configurationTargets, configurationStart + nodeConfigurationsCount);
+            for (int i = 0, configuration = 0; i < nodeConfigurationsCount; i++) {
+                configuration += readVarint(in);
+                configurationTargets[configurationStart + i] = checkIndex(configuration, configurationsCount);
+            }
+            configurationOffsets[node + 1] = configurationStart + nodeConfigurationsCount;
+        }
+        return new FrozenDependencyGraph(header.root, header.ids,
+                childOffsets, Arrays.copyOf(childTargets, childOffsets[nodesCount]), header.configurationNames,
+                configurationOffsets, Arrays.copyOf(configurationTargets, configurationOffsets[nodesCount]), unresolved);
+    }
+
+    private static Header readHeader(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("Not a binary dependency tree");
+            }
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary dependency tree version: " + version);
+        }
+        int nodesCount = readVarint(in);
+        int configurationsCount = readVarint(in);
+        int root = readVarint(in);
+        if (root >= nodesCount) {
+            throw new IOException("Invalid root node index: " + root);
+        }
+
+        String[] ids = new String[nodesCount];
+        for (int i = 0; i < nodesCount; i++) {
+            ids[i] = readString(in);
+        }
+        String[] configurationNames = new String[configurationsCount];
+        for (int i = 0; i < configurationsCount; i++) {
+            configurationNames[i] = readString(in);
+        }
+        if (new HashSet<>(Arrays.asList(configurationNames)).size() != configurationsCount) {
+            throw new IOException("Duplicate configuration names in the string table");
+        }
+        return new Header(root, ids, configurationNames);
+    }
+
+    static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            // The fifth byte holds the top 4 bits of an int, and no more bytes may follow
+            if (shift == 28 && (b & 0x70) != 0) {
+                break;
+            }
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void checkSorted(String[] values) throws IOException {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i - 1].compareTo(values[i]) >= 0) {
+                throw new IOException("The string table is not sorted");
+            }
+        }
+    }
+
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    private static int checkIndex(int index, int count) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IOException("Index " + index + " out of range " + count);
+        }
+        return index;
+    }
+
+    private static class Header {
+        private final int root;
+        private final String[] ids;
+        private final String[] configurationNames;
+
+        private Header(int root, String[] ids, String[] configurationNames) {
+            this.root = root;
+            this.ids = ids;
+            this.configurationNames = configurationNames;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.jfrog;
+
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-project memo of the outgoing edges of resolved components, keyed by the component identity.
+ * The same components are usually reached by most of the configurations of a project (compileClasspath,
+ * runtimeClasspath, testCompileClasspath, etc.), so the module ID symbols of their children only need to be computed
+ * once. Later configurations reuse the memoized symbols and only add their configuration name to the nodes they reach.
+ * <p>
+ * A component may select different variants or see different conflict resolution results in different
+ * configurations, so an entry is reused only if the component has exactly the same edges it was memoized with. The
+ * edges are compared in place, by count first, so a lookup allocates nothing. For the same reason, each configuration
+ * still visits the components it reaches: only the children of a component visited earlier in the same configuration
+ * are skipped, as their descendants may have been resolved differently by another configuration.
+ * <p>
+ * A single memo may be used for all the projects of a task, cleared before each project, to count the hits and misses
+ * of the whole task.
+ */
+public class ComponentMemo {
+    private final Map<Object, Entry> entries = new HashMap<>();
+    private int hits;
+    private int misses;
+
+    /**
+     * Get the memoized children of a component.
+     *
+     * @param component    the resolved component
+     * @param dependencies the dependencies of the component in the current configuration
+     * @return the module ID symbols of the children, aligned with {@code dependencies}, or null if the component was
+     * not memoized with the same edges.
+     */
+    int[] getChildSymbols(ResolvedComponentResult component, DependencyResult[] dependencies) {
+        Object key = component.getId();
+        if (key == null) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(dependencies)) {
+            hits++;
+            return entry.childSymbols;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Memoize the children of a component.
+     *
+     * @param component    the resolved component
+     * @param dependencies the dependencies of the component in the current configuration
+     * @param childSymbols the module ID symbols of the children, aligned with {@code dependencies}. A negative symbol
+     *                     marks a skipped dependency
+     */
+    void put(ResolvedComponentResult component, DependencyResult[] dependencies, int[] childSymbols) {
+        Object key = component.getId();
+        Object[] edges = toEdges(dependencies);
+        if (key != null && edges != null) {
+            entries.put(key, new Entry(edges, childSymbols));
+        }
+    }
+
+    /**
+     * Forget the memoized components, before the configurations of another project are added. The hits and misses are
+     * kept.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of components whose children were reused from a previous configuration.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of components whose children had to be computed.
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Convert dependencies to comparable edges: the selected component ID of a resolved dependency, or the requested
+     * selector of an unresolved one.
+     *
+     * @return the edges, or null if one of the edges has no identity.
+     */
+    private static Object[] toEdges(DependencyResult[] dependencies) {
+        Object[] edges = new Object[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            Object edge = toEdge(dependencies[i]);
+            if (edge == null) {
+                return null;
+            }
+            edges[i] = edge;
+        }
+        return edges;
+    }
+
+    private static Object toEdge(DependencyResult dependency) {
+        return dependency instanceof ResolvedDependencyResult ?
+                ((ResolvedDependencyResult) dependency).getSelected().getId() : dependency.getRequested();
+    }
+
+    private static class Entry {
+        private final Object[] edges;
+        private final int[] childSymbols;
+
+        private Entry(Object[] edges, int[] childSymbols) {
+            this.edges = edges;
+            this.childSymbols = childSymbols;
+        }
+
+        /**
+         * @param dependencies the dependencies of the component in the current configuration
+         * @return true if the component has the same edges as when it was memoized.
+         */
+        private boolean matches(DependencyResult[] dependencies) {
+            if (dependencies.length != edges.length) {
+                return false;
+            }
+            for (int i = 0; i < edges.length; i++) {
+                Object edge = toEdge(dependencies[i]);
+                // Component identifiers are usually shared by the resolution results of a build
+                if (edge != edges[i] && !edges[i].equals(edge)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jfrog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Decide which Gradle configurations should be added to the dependency tree, according to comma-separated lists of
+ * glob patterns such as {@code *Classpath,annotationProcessor}. A {@code *} matches any sequence of characters and a
+ * {@code ?} matches a single character. A configuration is accepted if it matches one of the include patterns (or if
+ * there are none) and none of the exclude patterns.
+ */
+public class ConfigurationFilter {
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+
+    /**
+     * @param includes comma-separated include glob patterns, may be null or empty to include all configurations
+     * @param excludes comma-separated exclude glob patterns, may be null or empty to exclude nothing
+     */
+    public ConfigurationFilter(String includes, String excludes) {
+        this.includes = parsePatterns(includes);
+        this.excludes = parsePatterns(excludes);
+    }
+
+    public boolean accept(String configurationName) {
+        return (includes.isEmpty() || matchesAny(includes, configurationName)) && !matchesAny(excludes, configurationName);
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String configurationName) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(configurationName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> parsePatterns(String globs) {
+        List<Pattern> patterns = new ArrayList<>();
+        if (globs == null) {
+            return patterns;
+        }
+        for (String glob : globs.split(",")) {
+            glob = glob.trim();
+            if (!glob.isEmpty()) {
+                patterns.add(globToPattern(glob));
+            }
+        }
+        return patterns;
+    }
+
+    static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
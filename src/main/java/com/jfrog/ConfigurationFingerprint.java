@@ -0,0 +1,254 @@
+package com.jfrog;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalDependency;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.FileCollectionDependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.ResolutionStrategy;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.util.GradleVersion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Fingerprints of Gradle configurations, computed without resolving them.
+ */
+public class ConfigurationFingerprint {
+    // The Gradle versions adding settings to the resolution strategy
+    private static final GradleVersion FAIL_ON_VERSIONS_VERSION = GradleVersion.version("6.1");
+    private static final GradleVersion DEPENDENCY_VERIFICATION_VERSION = GradleVersion.version("6.2");
+    private static final GradleVersion GLOBAL_SUBSTITUTION_RULES_VERSION = GradleVersion.version("7.4");
+
+    /**
+     * Compute a key that is equal for resolvable configurations that resolve to identical graphs.
+     * Two configurations are equivalent if they declare nothing of their own (no dependencies, dependency constraints
+     * or exclude rules) and share the same extendsFrom closure, attributes, transitivity and resolution strategy
+     * settings. Configurations declaring their own dependencies are never considered equivalent to another
+     * configuration, and neither should configurations with {@link ResolutionRules}, which may apply to them only.
+     * The caching settings of the resolution strategy can't be compared, and only apply to dynamic, snapshot and
+     * changing versions, so configurations with such versions are never considered equivalent either.
+     *
+     * @param configuration a resolvable Gradle configuration
+     * @return the equivalence key, or null if the configuration can't be folded with other configurations.
+     */
+    public static String equivalenceKey(Configuration configuration) {
+        if (!configuration.getDependencies().isEmpty() || !configuration.getDependencyConstraints().isEmpty() ||
+                !configuration.getExcludeRules().isEmpty() || hasChangingVersions(configuration)) {
+            return null;
+        }
+        Set<String> hierarchy = new TreeSet<>();
+        for (Configuration parent : configuration.getHierarchy()) {
+            if (parent != configuration) {
+                hierarchy.add(parent.getName());
+            }
+        }
+        return "transitive=" + configuration.isTransitive() +
+                ";extendsFrom=" + hierarchy +
+                ";attributes=" + attributesToString(configuration.getAttributes()) +
+                ";resolutionStrategy=" + resolutionStrategyToString(configuration.getResolutionStrategy());
+    }
+
+    /**
+     * Describe everything a configuration declares for its resolution: its own dependencies, dependency constraints and
+     * exclude rules, the names of the configurations it extends, its attributes, transitivity and the settings of its
+     * resolution strategy. The
+     * description is independent of the declaration order and of the formatting of the build scripts.
+     *
+     * @param configuration a Gradle configuration
+     * @return the normalized description of the configuration.
+     */
+    public static String declaredInputs(Configuration configuration) {
+        Set<String> dependencies = new TreeSet<>();
+        for (Dependency dependency : configuration.getDependencies()) {
+            dependencies.add(dependencyToString(dependency));
+        }
+        Set<String> constraints = new TreeSet<>();
+        for (DependencyConstraint constraint : configuration.getDependencyConstraints()) {
+            constraints.add(constraint.getGroup() + ":" + constraint.getName() + ":" + constraint.getVersionConstraint().getDisplayName());
+        }
+        Set<String> parents = new TreeSet<>();
+        for (Configuration parent : configuration.getExtendsFrom()) {
+            parents.add(parent.getName());
+        }
+        return configuration.getName() +
+                ";resolvable=" + configuration.isCanBeResolved() +
+                ";consumable=" + configuration.isCanBeConsumed() +
+                ";transitive=" + configuration.isTransitive() +
+                ";extendsFrom=" + parents +
+                ";attributes=" + attributesToString(configuration.getAttributes()) +
+                ";dependencies=" + dependencies +
+                ";constraints=" + constraints +
+                ";excludes=" + excludeRulesToString(configuration.getExcludeRules()) +
+                ";resolutionStrategy=" + resolutionStrategyToString(configuration.getResolutionStrategy());
+    }
+
+    /**
+     * Describe the settings of a resolution strategy that change the resolution without being rules: the forced
+     * modules, the conflict resolution (preferProjectModules, or strict with failOnVersionConflict), failing on dynamic
+     * or changing versions, dependency verification and the use of the global dependency substitution rules. Settings
+     * added by later Gradle versions are described when they exist.
+     *
+     * @param resolutionStrategy the resolution strategy of a configuration
+     * @return the normalized description of the settings.
+     */
+    static String resolutionStrategyToString(ResolutionStrategy resolutionStrategy) {
+        Set<String> forcedModules = new TreeSet<>();
+        resolutionStrategy.getForcedModules().forEach(module -> forcedModules.add(module.toString()));
+        StringBuilder description = new StringBuilder("forced=").append(forcedModules);
+        if (resolutionStrategy instanceof ResolutionStrategyInternal) {
+            ResolutionStrategyInternal internal = (ResolutionStrategyInternal) resolutionStrategy;
+            description.append(";conflictResolution=").append(internal.getConflictResolution());
+            GradleVersion gradleVersion = GradleVersion.current().getBaseVersion();
+            if (gradleVersion.compareTo(FAIL_ON_VERSIONS_VERSION) >= 0) {
+                description.append(";failOnDynamicVersions=").append(internal.isFailingOnDynamicVersions())
+                        .append(";failOnChangingVersions=").append(internal.isFailingOnChangingVersions());
+            }
+            if (gradleVersion.compareTo(DEPENDENCY_VERIFICATION_VERSION) >= 0) {
+                description.append(";dependencyVerification=").append(internal.isDependencyVerificationEnabled());
+            }
+        }
+        if (GradleVersion.current().getBaseVersion().compareTo(GLOBAL_SUBSTITUTION_RULES_VERSION) >= 0) {
+            description.append(";useGlobalDependencySubstitutionRules=")
+                    .append(resolutionStrategy.getUseGlobalDependencySubstitutionRules().getOrNull());
+        }
+        return description.toString();
+    }
+
+    /**
+     * Describe the repositories of a project, in the order they are searched.
+     *
+     * @param repositories the repositories of a project
+     * @return the normalized description of the repositories.
+     */
+    public static String repositories(Iterable<ArtifactRepository> repositories) {
+        List<String> descriptions = new ArrayList<>();
+        for (ArtifactRepository repository : repositories) {
+            if (repository instanceof MavenArtifactRepository) {
+                MavenArtifactRepository maven = (MavenArtifactRepository) repository;
+                descriptions.add("maven:" + maven.getUrl() + new TreeSet<>(maven.getArtifactUrls()));
+            } else if (repository instanceof IvyArtifactRepository) {
+                descriptions.add("ivy:" + ((IvyArtifactRepository) repository).getUrl());
+            } else if (repository instanceof FlatDirectoryArtifactRepository) {
+                descriptions.add("flatDir:" + new TreeSet<>(((FlatDirectoryArtifactRepository) repository).getDirs()));
+            } else {
+                descriptions.add(repository.getName());
+            }
+        }
+        return descriptions.toString();
+    }
+
+    /**
+     * Check whether the resolution of a configuration may change with no change to the build: a dependency or a
+     * dependency constraint of the configuration hierarchy has a dynamic version, a snapshot version or a branch, or is
+     * declared as changing. Transitive dependencies with dynamic versions are not detected.
+     *
+     * @param configuration a Gradle configuration
+     * @return true if the configuration declares changing versions.
+     */
+    public static boolean hasChangingVersions(Configuration configuration) {
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (dependency instanceof ExternalModuleDependency && ((ExternalModuleDependency) dependency).isChanging()) {
+                return true;
+            }
+            if (dependency instanceof ExternalDependency && isChanging(((ExternalDependency) dependency).getVersionConstraint())) {
+                return true;
+            }
+        }
+        for (DependencyConstraint constraint : configuration.getAllDependencyConstraints()) {
+            if (isChanging(constraint.getVersionConstraint())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a configuration hierarchy has external dependencies with no version, which get their version from
+     * a platform, a BOM or a resolution rule rather than from the declaration.
+     *
+     * @param configuration a Gradle configuration
+     * @return true if the configuration declares versionless dependencies.
+     */
+    public static boolean hasVersionlessDependencies(Configuration configuration) {
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (dependency instanceof ExternalDependency &&
+                    ((ExternalDependency) dependency).getVersionConstraint().getDisplayName().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isChanging(VersionConstraint versionConstraint) {
+        return versionConstraint.getBranch() != null ||
+                isChanging(versionConstraint.getRequiredVersion()) ||
+                isChanging(versionConstraint.getPreferredVersion()) ||
+                isChanging(versionConstraint.getStrictVersion());
+    }
+
+    private static boolean isChanging(String version) {
+        return version != null && (version.contains("+") || version.startsWith("[") || version.startsWith("]") ||
+                version.startsWith("(") || version.startsWith("latest.") || version.endsWith("SNAPSHOT"));
+    }
+
+    private static String dependencyToString(Dependency dependency) {
+        StringBuilder description = new StringBuilder();
+        if (dependency instanceof ProjectDependency) {
+            description.append("project:");
+        } else if (dependency instanceof FileCollectionDependency) {
+            // File dependencies are not part of the resolved graph
+            return "files";
+        }
+        description.append(dependency.getGroup()).append(':').append(dependency.getName());
+        if (dependency instanceof ExternalDependency) {
+            description.append(':').append(((ExternalDependency) dependency).getVersionConstraint().getDisplayName());
+        } else {
+            description.append(':').append(dependency.getVersion());
+        }
+        if (dependency instanceof ModuleDependency) {
+            ModuleDependency moduleDependency = (ModuleDependency) dependency;
+            Set<String> artifacts = new TreeSet<>();
+            for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+                artifacts.add(artifact.getName() + ":" + artifact.getType() + ":" + artifact.getExtension() + ":" + artifact.getClassifier());
+            }
+            description.append(";transitive=").append(moduleDependency.isTransitive())
+                    .append(";targetConfiguration=").append(moduleDependency.getTargetConfiguration())
+                    .append(";artifacts=").append(artifacts)
+                    .append(";excludes=").append(excludeRulesToString(moduleDependency.getExcludeRules()))
+                    .append(";attributes=").append(attributesToString(moduleDependency.getAttributes()));
+        }
+        return description.toString();
+    }
+
+    private static Set<String> excludeRulesToString(Set<ExcludeRule> excludeRules) {
+        Set<String> entries = new TreeSet<>();
+        for (ExcludeRule excludeRule : excludeRules) {
+            entries.add(excludeRule.getGroup() + ":" + excludeRule.getModule());
+        }
+        return entries;
+    }
+
+    private static String attributesToString(AttributeContainer attributes) {
+        Set<String> entries = new TreeSet<>();
+        for (Attribute<?> attribute : attributes.keySet()) {
+            entries.add(attribute.getName() + "=" + attributes.getAttribute(attribute));
+        }
+        return entries.toString();
+    }
+}
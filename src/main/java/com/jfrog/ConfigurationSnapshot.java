@@ -0,0 +1,110 @@
+package com.jfrog;
+
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.provider.Provider;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What the generateDepTrees task needs to add a configuration to the dependency graph of a project, captured from the
+ * {@link org.gradle.api.artifacts.Configuration} before the task is executed. Holds no Gradle model object, so it can
+ * be stored in the configuration cache: the resolution result is a provider, resolved when the entry is stored, or on
+ * first use when the configuration cache is disabled.
+ */
+public class ConfigurationSnapshot {
+    public enum Kind {
+        // A resolvable configuration with nothing to resolve
+        EMPTY,
+        // A resolvable configuration
+        RESOLVED,
+        // A resolvable configuration that resolves like another configuration of the project
+        EQUIVALENT,
+        // A configuration that can't be resolved, added with its direct dependencies only
+        UNRESOLVED
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final String representative;
+    private final List<String> dependencyIds;
+    private final Provider<ResolvedComponentResult> rootComponent;
+    private final String cacheKey;
+
+    private ConfigurationSnapshot(String name, Kind kind, String representative, List<String> dependencyIds,
+                                  Provider<ResolvedComponentResult> rootComponent, String cacheKey) {
+        this.name = name;
+        this.kind = kind;
+        this.representative = representative;
+        this.dependencyIds = dependencyIds;
+        this.rootComponent = rootComponent;
+        this.cacheKey = cacheKey;
+    }
+
+    public static ConfigurationSnapshot empty(String name) {
+        return new ConfigurationSnapshot(name, Kind.EMPTY, null, Collections.emptyList(), null, null);
+    }
+
+    /**
+     * @param name          the name of the configuration
+     * @param rootComponent the root of the resolution result of the configuration
+     * @param cacheKey      the key of the configuration in the resolution cache, or null if it must always be resolved
+     */
+    public static ConfigurationSnapshot resolved(String name, Provider<ResolvedComponentResult> rootComponent, String cacheKey) {
+        return new ConfigurationSnapshot(name, Kind.RESOLVED, null, Collections.emptyList(), rootComponent, cacheKey);
+    }
+
+    /**
+     * @param name           the name of the configuration
+     * @param representative the name of the resolved configuration of the project that resolves the same way
+     */
+    public static ConfigurationSnapshot equivalent(String name, String representative) {
+        return new ConfigurationSnapshot(name, Kind.EQUIVALENT, representative, Collections.emptyList(), null, null);
+    }
+
+    /**
+     * @param name          the name of the configuration
+     * @param dependencyIds the module IDs of the declared dependencies of the configuration
+     */
+    public static ConfigurationSnapshot unresolved(String name, List<String> dependencyIds) {
+        return new ConfigurationSnapshot(name, Kind.UNRESOLVED, null, dependencyIds, null, null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the name of the resolved configuration of an {@link Kind#EQUIVALENT} configuration.
+     */
+    public String getRepresentative() {
+        return representative;
+    }
+
+    /**
+     * @return the module IDs of the declared dependencies of an {@link Kind#UNRESOLVED} configuration.
+     */
+    public List<String> getDependencyIds() {
+        return dependencyIds;
+    }
+
+    /**
+     * @return the root of the resolution result of a {@link Kind#RESOLVED} configuration. Resolves the configuration if
+     * it wasn't resolved yet.
+     */
+    public ResolvedComponentResult getRootComponent() {
+        return rootComponent.get();
+    }
+
+    /**
+     * @return the key of a {@link Kind#RESOLVED} configuration in the resolution cache, or null if it must always be
+     * resolved.
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+}
@@ -0,0 +1,174 @@
+package com.jfrog;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The dependency graphs of several projects, merged into a single node table keyed by module ID. Each module appears
+ * once no matter how many projects depend on it, and its configurations are attributed to the projects that reach it.
+ * The children of a module are the union of its children in all projects, and a module is unresolved only if it is
+ * unresolved in all projects.
+ */
+public class ConsolidatedDependencyGraph {
+    private static final int[] EMPTY = new int[0];
+
+    private final SymbolTable moduleIds;
+    private final SymbolTable configurationNames;
+    // Project path -> module ID of the project root
+    private final Map<String, String> projectRoots = new TreeMap<>();
+    // Project index -> project path
+    private String[] projects = new String[16];
+    private int projectsCount;
+    // Indexed by module ID symbol
+    private int[][] children = new int[0][];
+    private int[] childrenCounts = new int[0];
+    // Pairs of (project index, configuration symbol). The pairs of each project are contiguous.
+    private int[][] attributions = new int[0][];
+    private int[] attributionsCounts = new int[0];
+    private final BitSet present = new BitSet();
+    private final BitSet resolved = new BitSet();
+    // The children of each module, merged from all projects
+    private final EdgeSet edges = new EdgeSet();
+
+    /**
+     * @param moduleIds          the symbol table of the module IDs of the run
+     * @param configurationNames the symbol table of the configuration names of the run
+     */
+    public ConsolidatedDependencyGraph(SymbolTable moduleIds, SymbolTable configurationNames) {
+        this.moduleIds = moduleIds;
+        this.configurationNames = configurationNames;
+    }
+
+    /**
+     * Merge the graph of a project. The frozen graph is not referenced after this call.
+     *
+     * @param projectPath the path of the project, such as {@code :app}
+     * @param graph       the frozen dependency graph of the project
+     */
+    public void add(String projectPath, FrozenDependencyGraph graph) {
+        projectRoots.put(projectPath, graph.getRoot());
+        if (projectsCount == projects.length) {
+            projects = Arrays.copyOf(projects, projectsCount * 2);
+        }
+        int project = projectsCount++;
+        projects[project] = projectPath;
+
+        int[] symbols = new int[graph.size()];
+        for (int node = 0; node < graph.size(); node++) {
+            symbols[node] = moduleIds.intern(graph.getId(node));
+        }
+        ensureCapacity(moduleIds.size());
+        for (int node = 0; node < graph.size(); node++) {
+            int symbol = symbols[node];
+            present.set(symbol);
+            if (!graph.isUnresolved(node)) {
+                resolved.set(symbol);
+            }
+            for (int i = 0; i < graph.getChildCount(node); i++) {
+                addChild(symbol, symbols[graph.getChild(node, i)]);
+            }
+            for (int i = 0; i < graph.getConfigurationCount(node); i++) {
+                addAttribution(symbol, project, configurationNames.intern(graph.getConfiguration(node, i)));
+            }
+        }
+    }
+
+    /**
+     * @return the module IDs of the project roots, mapped by the project paths, sorted by path.
+     */
+    public Map<String, String> getProjectRoots() {
+        return projectRoots;
+    }
+
+    /**
+     * @return the module ID symbols of all nodes, sorted by module ID.
+     */
+    public int[] getSortedNodes() {
+        return present.stream()
+                .boxed()
+                .sorted((first, second) -> moduleIds.get(first).compareTo(moduleIds.get(second)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public SymbolTable getModuleIds() {
+        return moduleIds;
+    }
+
+    public boolean isUnresolved(int symbol) {
+        return !resolved.get(symbol);
+    }
+
+    /**
+     * @param symbol the module ID symbol of a node
+     * @return the module ID symbols of the children of the node, in no particular order.
+     */
+    public int[] getChildren(int symbol) {
+        return Arrays.copyOf(children[symbol], childrenCounts[symbol]);
+    }
+
+    /**
+     * @param symbol the module ID symbol of a node
+     * @return the configuration names of the node mapped by project paths, sorted by path and by name.
+     */
+    public Map<String, String[]> getConfigurations(int symbol) {
+        Map<String, String[]> configurations = new TreeMap<>();
+        int[] nodeAttributions = attributions[symbol];
+        int count = attributionsCounts[symbol];
+        for (int start = 0; start < count; ) {
+            int project = nodeAttributions[start];
+            int end = start;
+            while (end < count && nodeAttributions[end] == project) {
+                end += 2;
+            }
+            String[] names = new String[(end - start) / 2];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = configurationNames.get(nodeAttributions[start + i * 2 + 1]);
+            }
+            Arrays.sort(names);
+            configurations.put(projects[project], names);
+            start = end;
+        }
+        return configurations;
+    }
+
+    private void addChild(int parent, int child) {
+        int[] parentChildren = children[parent];
+        int count = childrenCounts[parent];
+        if (!edges.add(parent, parentChildren, count, child)) {
+            return;
+        }
+        if (count == parentChildren.length) {
+            parentChildren = children[parent] = Arrays.copyOf(parentChildren, Math.max(4, count * 2));
+        }
+        parentChildren[count] = child;
+        childrenCounts[parent] = count + 1;
+    }
+
+    private void addAttribution(int symbol, int project, int configuration) {
+        int[] nodeAttributions = attributions[symbol];
+        int count = attributionsCounts[symbol];
+        if (count + 2 > nodeAttributions.length) {
+            nodeAttributions = attributions[symbol] = Arrays.copyOf(nodeAttributions, Math.max(4, count * 2));
+        }
+        nodeAttributions[count] = project;
+        nodeAttributions[count + 1] = configuration;
+        attributionsCounts[symbol] = count + 2;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int previous = children.length;
+        if (capacity <= previous) {
+            return;
+        }
+        capacity = Math.max(capacity, previous * 2);
+        children = Arrays.copyOf(children, capacity);
+        childrenCounts = Arrays.copyOf(childrenCounts, capacity);
+        attributions = Arrays.copyOf(attributions, capacity);
+        attributionsCounts = Arrays.copyOf(attributionsCounts, capacity);
+        Arrays.fill(children, previous, capacity, EMPTY);
+        Arrays.fill(attributions, previous, capacity, EMPTY);
+    }
+}
@@ -0,0 +1,114 @@
+package com.jfrog;
+
+import org.gradle.api.GradleException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stream the dependency trees as newline-delimited JSON (NDJSON), one self-contained record per project, flushed as
+ * soon as the tree of the project is complete:
+ * <pre>
+ * {"project":"&lt;project path&gt;","root":"&lt;root module ID&gt;","nodes":{...}}
+ * </pre>
+ * The stream ends with an end-of-stream record, in which {@code complete} is false if the task failed before all
+ * trees were written:
+ * <pre>
+ * {"endOfStream":true,"complete":true,"projects":&lt;number of project records&gt;}
+ * </pre>
+ * The output may be a regular file or a named pipe. Opening a named pipe blocks until a consumer opens it for reading.
+ */
+public class DepTreeStreamWriter implements Closeable {
+    private final File outputFile;
+    private final Writer out;
+    private final JsonWriter writer;
+    private final boolean nodeHashes;
+    private int projects;
+    private boolean complete;
+
+    /**
+     * @param outputFile the file or named pipe to stream the trees to
+     */
+    public DepTreeStreamWriter(File outputFile) {
+        this(outputFile, false);
+    }
+
+    /**
+     * @param outputFile the file or named pipe to stream the trees to
+     * @param nodeHashes true to add the {@link NodeHashes} of the nodes as a "hash" field
+     */
+    public DepTreeStreamWriter(File outputFile, boolean nodeHashes) {
+        this.outputFile = outputFile;
+        this.nodeHashes = nodeHashes;
+        try {
+            // Named pipes can't be truncated
+            OutputStream outputStream = Files.exists(outputFile.toPath()) && !Files.isRegularFile(outputFile.toPath()) ?
+                    Files.newOutputStream(outputFile.toPath(), StandardOpenOption.WRITE) :
+                    Files.newOutputStream(outputFile.toPath());
+            out = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        }
+        writer = new JsonWriter(out, false);
+    }
+
+    /**
+     * Write the record of a project and flush it to the consumer.
+     *
+     * @param projectPath the path of the project, such as {@code :app}
+     * @param graph       the frozen dependency graph of the project
+     */
+    public void write(String projectPath, FrozenDependencyGraph graph) {
+        try {
+            writer.beginObject();
+            writer.name("project").value(projectPath);
+            Utils.writeGraphMembers(writer, graph, nodeHashes ? NodeHashes.compute(graph) : null);
+            writer.endObject();
+            endRecord();
+            projects++;
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        }
+    }
+
+    /**
+     * Mark the stream as complete. Must be called after the records of all projects were written.
+     */
+    public void complete() {
+        complete = true;
+    }
+
+    /**
+     * Write the end-of-stream record and close the stream.
+     */
+    @Override
+    public void close() {
+        try {
+            try {
+                writer.beginObject();
+                writer.name("endOfStream").value(true);
+                writer.name("complete").value(complete);
+                writer.name("projects").value(projects);
+                writer.endObject();
+                endRecord();
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        }
+    }
+
+    private void endRecord() throws IOException {
+        writer.flush();
+        out.write('\n');
+        out.flush();
+    }
+}
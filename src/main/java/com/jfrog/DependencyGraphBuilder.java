@@ -0,0 +1,291 @@
+package com.jfrog;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The mutable dependency graph of a single project. Nodes are addressed by a dense node index and refer to their
+ * module ID and configurations by symbols of the run's {@link SymbolTable}s, so that populating the graph involves no
+ * string building or string hashing. The graph is converted to {@link GradleDepTreeResults} only for serialization.
+ */
+public class DependencyGraphBuilder {
+    // The index of the root node
+    public static final int ROOT = 0;
+    private static final int[] EMPTY_CHILDREN = new int[0];
+
+    private final SymbolTable moduleIds;
+    private final SymbolTable configurationNames;
+    // Module ID symbol -> node index + 1, or 0 if the module is not in the graph
+    private int[] nodeBySymbol = new int[0];
+    private int[] symbols = new int[16];
+    private int[][] children = new int[16][];
+    private int[] childrenCounts = new int[16];
+    private BitSet[] configurations = new BitSet[16];
+    private final BitSet unresolved = new BitSet();
+    private int size;
+    private final EdgeSet edges = new EdgeSet();
+
+    /**
+     * @param rootId             the module ID of the root node
+     * @param moduleIds          the symbol table of the module IDs
+     * @param configurationNames the symbol table of the configuration names
+     */
+    public DependencyGraphBuilder(String rootId, SymbolTable moduleIds, SymbolTable configurationNames) {
+        this.moduleIds = moduleIds;
+        this.configurationNames = configurationNames;
+        addNode(moduleIds.intern(rootId));
+    }
+
+    public SymbolTable getModuleIds() {
+        return moduleIds;
+    }
+
+    public SymbolTable getConfigurationNames() {
+        return configurationNames;
+    }
+
+    /**
+     * @return the number of nodes in the graph.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param moduleSymbol the symbol of a module ID
+     * @return the index of the node of the module, or -1 if the module is not in the graph.
+     */
+    public int getNode(int moduleSymbol) {
+        return moduleSymbol < nodeBySymbol.length ? nodeBySymbol[moduleSymbol] - 1 : -1;
+    }
+
+    /**
+     * @param node a node index
+     * @return the symbol of the module ID of the node.
+     */
+    public int getSymbol(int node) {
+        return symbols[node];
+    }
+
+    public boolean isUnresolved(int node) {
+        return unresolved.get(node);
+    }
+
+    /**
+     * Add a resolved child to the graph. If the child is already in the graph, it is marked as resolved.
+     *
+     * @param parent        the parent node index
+     * @param childSymbol   the symbol of the module ID of the child
+     * @param configuration the symbol of the configuration name
+     * @return the child node index.
+     */
+    public int addResolvedChild(int parent, int childSymbol, int configuration) {
+        int child = getNode(childSymbol);
+        if (child < 0) {
+            child = addNode(childSymbol);
+        } else {
+            unresolved.clear(child);
+        }
+        addConfiguration(child, configuration);
+        addEdge(parent, child);
+        return child;
+    }
+
+    /**
+     * Add an unresolved child to the graph. If the child is already in the graph, its resolution status is kept.
+     *
+     * @param parent        the parent node index
+     * @param childSymbol   the symbol of the module ID of the child
+     * @param configuration the symbol of the configuration name
+     */
+    public void addUnresolvedChild(int parent, int childSymbol, int configuration) {
+        int child = getNode(childSymbol);
+        if (child < 0) {
+            child = addNode(childSymbol);
+            unresolved.set(child);
+        }
+        addConfiguration(child, configuration);
+        addEdge(parent, child);
+    }
+
+    /**
+     * Add an edge between 2 nodes, unless it already exists. The children of nodes with few children are scanned, and
+     * the edges of the others are looked up in a hash set, so adding an edge takes constant time.
+     *
+     * @param parent the parent node index
+     * @param child  the child node index
+     */
+    public void addEdge(int parent, int child) {
+        int[] parentChildren = children[parent];
+        int count = childrenCounts[parent];
+        if (!edges.add(parent, parentChildren, count, child)) {
+            return;
+        }
+        if (count == parentChildren.length) {
+            parentChildren = children[parent] = Arrays.copyOf(parentChildren, Math.max(4, count * 2));
+        }
+        parentChildren[count] = child;
+        childrenCounts[parent] = count + 1;
+    }
+
+    /**
+     * @param node          a node index
+     * @param configuration the symbol of a configuration name to add to the node
+     */
+    public void addConfiguration(int node, int configuration) {
+        configurations[node].set(configuration);
+    }
+
+    /**
+     * Attribute the nodes of a resolved configuration to equivalent configurations that were not resolved.
+     * Every node reached by {@code representative} is also reached by each one of {@code equivalents}.
+     *
+     * @param representative the symbol of the resolved configuration
+     * @param equivalents    the symbols of the configurations resolving to the same graph as {@code representative}
+     */
+    public void addEquivalentConfigurations(int representative, int[] equivalents) {
+        for (int node = 0; node < size; node++) {
+            if (configurations[node].get(representative)) {
+                for (int equivalent : equivalents) {
+                    configurations[node].set(equivalent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert the graph to results for serialization.
+     *
+     * @return the results, with the root of the graph as root.
+     */
+    public GradleDepTreeResults toResults() {
+        Map<String, GradleDependencyNode> nodes = new HashMap<>(size * 2);
+        for (int node = 0; node < size; node++) {
+            nodes.put(moduleIds.get(symbols[node]), toDependencyNode(node));
+        }
+        return new GradleDepTreeResults(moduleIds.get(symbols[ROOT]), nodes);
+    }
+
+    /**
+     * Convert the graph to its immutable CSR form. The builder is no longer needed once frozen.
+     *
+     * @return the frozen graph.
+     */
+    public FrozenDependencyGraph freeze() {
+        // Sort the nodes by their module ID: the rank of a node is its index in the frozen graph
+        String[] ids = new String[size];
+        for (int node = 0; node < size; node++) {
+            ids[node] = moduleIds.get(symbols[node]);
+        }
+        Arrays.sort(ids);
+        int[] ranks = new int[size];
+        for (int node = 0; node < size; node++) {
+            ranks[node] = Arrays.binarySearch(ids, moduleIds.get(symbols[node]));
+        }
+
+        // Keep only the configurations used by the graph, sorted by name
+        BitSet usedConfigurations = new BitSet();
+        int configurationsCount = 0;
+        for (int node = 0; node < size; node++) {
+            usedConfigurations.or(configurations[node]);
+            configurationsCount += configurations[node].cardinality();
+        }
+        String[] names = new String[usedConfigurations.cardinality()];
+        for (int symbol = usedConfigurations.nextSetBit(0), i = 0; symbol >= 0; symbol = usedConfigurations.nextSetBit(symbol + 1)) {
+            names[i++] = configurationNames.get(symbol);
+        }
+        Arrays.sort(names);
+
+        int edgesCount = 0;
+        for (int node = 0; node < size; node++) {
+            edgesCount += childrenCounts[node];
+        }
+        int[] childOffsets = new int[size + 1];
+        int[] childTargets = new int[edgesCount];
+        int[] configurationOffsets = new int[size + 1];
+        int[] configurationTargets = new int[configurationsCount];
+        BitSet frozenUnresolved = new BitSet(size);
+        int[] nodeByRank = new int[size];
+        for (int node = 0; node < size; node++) {
+            nodeByRank[ranks[node]] = node;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            int node = nodeByRank[rank];
+            int childStart = childOffsets[rank];
+            for (int i = 0; i < childrenCounts[node]; i++) {
+                childTargets[childStart + i] = ranks[children[node][i]];
+            }
+            Arrays.sort(childTargets, childStart, childStart + childrenCounts[node]);
+            childOffsets[rank + 1] = childStart + childrenCounts[node];
+
+            int configurationStart = configurationOffsets[rank];
+            int count = 0;
+            BitSet nodeConfigurations = configurations[node];
+            for (int symbol = nodeConfigurations.nextSetBit(0); symbol >= 0; symbol = nodeConfigurations.nextSetBit(symbol + 1)) {
+                configurationTargets[configurationStart + count++] = Arrays.binarySearch(names, configurationNames.get(symbol));
+            }
+            Arrays.sort(configurationTargets, configurationStart, configurationStart + count);
+            configurationOffsets[rank + 1] = configurationStart + count;
+            frozenUnresolved.set(rank, unresolved.get(node));
+        }
+        return new FrozenDependencyGraph(ranks[ROOT], ids, childOffsets, childTargets, names,
+                configurationOffsets, configurationTargets, frozenUnresolved);
+    }
+
+    /**
+     * Merge the graph into a map of nodes, the same way {@link GradleDependencyTreeUtils#addChild} merges children.
+     *
+     * @param root  the node to merge the root of the graph into
+     * @param nodes a map of all nodes mapped by their module ID (group:name:version)
+     */
+    void mergeInto(GradleDependencyNode root, Map<String, GradleDependencyNode> nodes) {
+        merge(root, toDependencyNode(ROOT));
+        for (int node = ROOT + 1; node < size; node++) {
+            String id = moduleIds.get(symbols[node]);
+            GradleDependencyNode existing = nodes.get(id);
+            if (existing == null) {
+                nodes.put(id, toDependencyNode(node));
+            } else {
+                merge(existing, toDependencyNode(node));
+            }
+        }
+    }
+
+    private static void merge(GradleDependencyNode target, GradleDependencyNode source) {
+        target.addConfigurations(source);
+        target.setUnresolved(target.isUnresolved() && source.isUnresolved());
+        target.getChildren().addAll(source.getChildren());
+    }
+
+    private GradleDependencyNode toDependencyNode(int node) {
+        GradleDependencyNode dependencyNode = new GradleDependencyNode(configurationNames);
+        dependencyNode.setUnresolved(unresolved.get(node));
+        dependencyNode.addConfigurationSymbols(configurations[node]);
+        int[] nodeChildren = children[node];
+        for (int i = 0; i < childrenCounts[node]; i++) {
+            dependencyNode.getChildren().add(moduleIds.get(symbols[nodeChildren[i]]));
+        }
+        return dependencyNode;
+    }
+
+    private int addNode(int moduleSymbol) {
+        if (size == symbols.length) {
+            int capacity = size * 2;
+            symbols = Arrays.copyOf(symbols, capacity);
+            children = Arrays.copyOf(children, capacity);
+            childrenCounts = Arrays.copyOf(childrenCounts, capacity);
+            configurations = Arrays.copyOf(configurations, capacity);
+        }
+        if (moduleSymbol >= nodeBySymbol.length) {
+            nodeBySymbol = Arrays.copyOf(nodeBySymbol, Math.max(moduleSymbol + 1, nodeBySymbol.length * 2));
+        }
+        int node = size++;
+        symbols[node] = moduleSymbol;
+        children[node] = EMPTY_CHILDREN;
+        configurations[node] = new BitSet();
+        nodeBySymbol[moduleSymbol] = node + 1;
+        return node;
+    }
+}
@@ -0,0 +1,151 @@
+package com.jfrog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The difference between the previous and the current dependency graph of a project: the added and removed nodes,
+ * the nodes whose unresolved flag or configurations changed, and the added and removed edges. Applying the delta to
+ * the previous graph yields the current graph. Both graphs are sorted by module ID, so the delta is computed by
+ * merging them in a single pass.
+ */
+public class DependencyGraphDelta {
+    private final FrozenDependencyGraph previous;
+    private final FrozenDependencyGraph current;
+    private final List<String> addedNodes = new ArrayList<>();
+    private final List<String> removedNodes = new ArrayList<>();
+    private final List<String> changedNodes = new ArrayList<>();
+    // Parent module ID -> sorted child module IDs, sorted by parent
+    private final Map<String, List<String>> addedEdges = new TreeMap<>();
+    private final Map<String, List<String>> removedEdges = new TreeMap<>();
+
+    /**
+     * @param previous the graph of the previous run, or null if there is none. All nodes are then added.
+     * @param current  the graph of the current run
+     */
+    public DependencyGraphDelta(FrozenDependencyGraph previous, FrozenDependencyGraph current) {
+        this.previous = previous;
+        this.current = current;
+        int previousSize = previous == null ? 0 : previous.size();
+        int previousNode = 0;
+        int currentNode = 0;
+        while (previousNode < previousSize || currentNode < current.size()) {
+            int comparison = previousNode == previousSize ? 1 : currentNode == current.size() ? -1 :
+                    previous.getId(previousNode).compareTo(current.getId(currentNode));
+            if (comparison < 0) {
+                removedNodes.add(previous.getId(previousNode));
+                diffChildren(previous, previousNode, null, -1);
+                previousNode++;
+            } else if (comparison > 0) {
+                addedNodes.add(current.getId(currentNode));
+                diffChildren(null, -1, current, currentNode);
+                currentNode++;
+            } else {
+                if (isChanged(previousNode, currentNode)) {
+                    changedNodes.add(current.getId(currentNode));
+                }
+                diffChildren(previous, previousNode, current, currentNode);
+                previousNode++;
+                currentNode++;
+            }
+        }
+    }
+
+    /**
+     * @return the graph of the current run.
+     */
+    public FrozenDependencyGraph getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return the module ID of the root of the previous graph, or null if there is no previous graph.
+     */
+    public String getPreviousRoot() {
+        return previous == null ? null : previous.getRoot();
+    }
+
+    /**
+     * @return the module IDs of the nodes of the current graph that are not in the previous graph, sorted.
+     */
+    public List<String> getAddedNodes() {
+        return addedNodes;
+    }
+
+    /**
+     * @return the module IDs of the nodes of the previous graph that are not in the current graph, sorted.
+     */
+    public List<String> getRemovedNodes() {
+        return removedNodes;
+    }
+
+    /**
+     * @return the module IDs of the nodes whose unresolved flag or configurations changed, sorted.
+     */
+    public List<String> getChangedNodes() {
+        return changedNodes;
+    }
+
+    /**
+     * @return the child module IDs of the edges added to the graph, mapped by their parent module IDs.
+     */
+    public Map<String, List<String>> getAddedEdges() {
+        return addedEdges;
+    }
+
+    /**
+     * @return the child module IDs of the edges removed from the graph, mapped by their parent module IDs.
+     */
+    public Map<String, List<String>> getRemovedEdges() {
+        return removedEdges;
+    }
+
+    /**
+     * @return true if the current graph is identical to the previous graph.
+     */
+    public boolean isEmpty() {
+        return previous != null && previous.getRoot().equals(current.getRoot()) && addedNodes.isEmpty() &&
+                removedNodes.isEmpty() && changedNodes.isEmpty() && addedEdges.isEmpty() && removedEdges.isEmpty();
+    }
+
+    private boolean isChanged(int previousNode, int currentNode) {
+        if (previous.isUnresolved(previousNode) != current.isUnresolved(currentNode)) {
+            return true;
+        }
+        int count = current.getConfigurationCount(currentNode);
+        if (previous.getConfigurationCount(previousNode) != count) {
+            return true;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!previous.getConfiguration(previousNode, i).equals(current.getConfiguration(currentNode, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merge the sorted children of a node in both graphs. A null graph stands for a node missing from that graph.
+     */
+    private void diffChildren(FrozenDependencyGraph previousGraph, int previousNode, FrozenDependencyGraph currentGraph, int currentNode) {
+        int previousCount = previousGraph == null ? 0 : previousGraph.getChildCount(previousNode);
+        int currentCount = currentGraph == null ? 0 : currentGraph.getChildCount(currentNode);
+        for (int i = 0, j = 0; i < previousCount || j < currentCount; ) {
+            String previousChild = i < previousCount ? previousGraph.getId(previousGraph.getChild(previousNode, i)) : null;
+            String currentChild = j < currentCount ? currentGraph.getId(currentGraph.getChild(currentNode, j)) : null;
+            int comparison = previousChild == null ? 1 : currentChild == null ? -1 : previousChild.compareTo(currentChild);
+            if (comparison < 0) {
+                removedEdges.computeIfAbsent(previousGraph.getId(previousNode), key -> new ArrayList<>()).add(previousChild);
+                i++;
+            } else if (comparison > 0) {
+                addedEdges.computeIfAbsent(currentGraph.getId(currentNode), key -> new ArrayList<>()).add(currentChild);
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.jfrog;
+
+import java.util.Arrays;
+
+/**
+ * The edges of a graph whose children are kept in arrays, to add each edge once. The children of nodes with few
+ * children are scanned, and the edges of the others are looked up in an open-addressing hash set, as
+ * {@code parent << 32 | child}, so adding an edge takes constant time.
+ */
+class EdgeSet {
+    // Nodes with more children look up their edges in the hash set instead of scanning their children
+    static final int MAX_SCANNED_CHILDREN = 8;
+    private static final long NO_EDGE = -1;
+
+    private long[] edges = new long[0];
+    private int size;
+
+    /**
+     * @param parent   the parent node
+     * @param children the children of the parent node
+     * @param count    the number of children of the parent node
+     * @param child    the child node
+     * @return true if the child is not a child of the parent node yet, and should be added to its children.
+     */
+    boolean add(int parent, int[] children, int count, int child) {
+        if (count < MAX_SCANNED_CHILDREN) {
+            for (int i = 0; i < count; i++) {
+                if (children[i] == child) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (count == MAX_SCANNED_CHILDREN) {
+            // The node now has too many children to scan
+            for (int i = 0; i < count; i++) {
+                add(parent, children[i]);
+            }
+        }
+        return add(parent, child);
+    }
+
+    /**
+     * @param parent the parent node
+     * @param child  the child node
+     * @return true if the edge was added to the set, false if it was already there.
+     */
+    private boolean add(int parent, int child) {
+        if ((size + 1) * 2 > edges.length) {
+            long[] previous = edges;
+            edges = new long[Math.max(64, previous.length * 2)];
+            Arrays.fill(edges, NO_EDGE);
+            for (long edge : previous) {
+                if (edge != NO_EDGE) {
+                    insert(edge);
+                }
+            }
+        }
+        if (!insert(((long) parent << 32) | child)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    private boolean insert(long edge) {
+        int mask = edges.length - 1;
+        long hash = edge * 0x9E3779B97F4A7C15L;
+        for (int slot = (int) (hash ^ (hash >>> 32)) & mask; ; slot = (slot + 1) & mask) {
+            if (edges[slot] == NO_EDGE) {
+                edges[slot] = edge;
+                return true;
+            }
+            if (edges[slot] == edge) {
+                return false;
+            }
+        }
+    }
+}
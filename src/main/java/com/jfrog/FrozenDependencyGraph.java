@@ -0,0 +1,157 @@
+package com.jfrog;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The immutable dependency graph of a single project, in compressed sparse row (CSR) form. The nodes are sorted by
+ * their module ID, and the children and configurations of node {@code i} are the entries
+ * {@code [offsets[i], offsets[i + 1])} of the targets arrays, sorted as well. A frozen graph holds no per-node or
+ * per-edge objects, so it is a fraction of the size of the equivalent {@link GradleDepTreeResults}.
+ */
+public class FrozenDependencyGraph {
+    private final int root;
+    // Node index -> module ID
+    private final String[] ids;
+    private final int[] childOffsets;
+    private final int[] childTargets;
+    // The sorted names of the configurations used by the graph
+    private final String[] configurationNames;
+    private final int[] configurationOffsets;
+    private final int[] configurationTargets;
+    private final BitSet unresolved;
+
+    FrozenDependencyGraph(int root, String[] ids, int[] childOffsets, int[] childTargets, String[] configurationNames,
+                          int[] configurationOffsets, int[] configurationTargets, BitSet unresolved) {
+        this.root = root;
+        this.ids = ids;
+        this.childOffsets = childOffsets;
+        this.childTargets = childTargets;
+        this.configurationNames = configurationNames;
+        this.configurationOffsets = configurationOffsets;
+        this.configurationTargets = configurationTargets;
+        this.unresolved = unresolved;
+    }
+
+    /**
+     * @return the module ID of the root node.
+     */
+    public String getRoot() {
+        return ids[root];
+    }
+
+    /**
+     * @return the index of the root node.
+     */
+    public int getRootNode() {
+        return root;
+    }
+
+    /**
+     * @return the number of nodes in the graph.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return the number of edges in the graph.
+     */
+    public int getEdgeCount() {
+        return childTargets.length;
+    }
+
+    /**
+     * @param id a module ID
+     * @return the index of the node of the module, or -1 if the module is not in the graph.
+     */
+    public int getNode(String id) {
+        int node = Arrays.binarySearch(ids, id);
+        return node < 0 ? -1 : node;
+    }
+
+    /**
+     * @param node a node index
+     * @return the module ID of the node.
+     */
+    public String getId(int node) {
+        return ids[node];
+    }
+
+    public boolean isUnresolved(int node) {
+        return unresolved.get(node);
+    }
+
+    public int getChildCount(int node) {
+        return childOffsets[node + 1] - childOffsets[node];
+    }
+
+    /**
+     * @param node  a node index
+     * @param index the index of the child, between 0 and {@link #getChildCount(int)}
+     * @return the node index of the child. The children of a node are sorted by their module ID.
+     */
+    public int getChild(int node, int index) {
+        return childTargets[childOffsets[node] + index];
+    }
+
+    public int getConfigurationCount(int node) {
+        return configurationOffsets[node + 1] - configurationOffsets[node];
+    }
+
+    /**
+     * @param node  a node index
+     * @param index the index of the configuration, between 0 and {@link #getConfigurationCount(int)}
+     * @return the configuration name. The configurations of a node are sorted by their name.
+     */
+    public String getConfiguration(int node, int index) {
+        return configurationNames[configurationTargets[configurationOffsets[node] + index]];
+    }
+
+    /**
+     * @param node  a node index
+     * @param index the index of the configuration, between 0 and {@link #getConfigurationCount(int)}
+     * @return the index of the configuration name in the configuration names of the graph.
+     */
+    public int getConfigurationIndex(int node, int index) {
+        return configurationTargets[configurationOffsets[node] + index];
+    }
+
+    /**
+     * @return the number of distinct configuration names in the graph.
+     */
+    public int getConfigurationNamesCount() {
+        return configurationNames.length;
+    }
+
+    /**
+     * @param index the index of a configuration name, between 0 and {@link #getConfigurationNamesCount()}
+     * @return the configuration name. The configuration names of the graph are sorted.
+     */
+    public String getConfigurationName(int index) {
+        return configurationNames[index];
+    }
+
+    /**
+     * Convert the graph to results, for consumers of the map-based representation.
+     *
+     * @return the results, with the root of the graph as root.
+     */
+    public GradleDepTreeResults toResults() {
+        Map<String, GradleDependencyNode> nodes = new HashMap<>(ids.length * 2);
+        for (int node = 0; node < ids.length; node++) {
+            GradleDependencyNode dependencyNode = new GradleDependencyNode();
+            dependencyNode.setUnresolved(isUnresolved(node));
+            for (int i = 0; i < getConfigurationCount(node); i++) {
+                dependencyNode.getConfigurations().add(getConfiguration(node, i));
+            }
+            for (int i = 0; i < getChildCount(node); i++) {
+                dependencyNode.getChildren().add(ids[getChild(node, i)]);
+            }
+            nodes.put(ids[node], dependencyNode);
+        }
+        return new GradleDepTreeResults(getRoot(), nodes);
+    }
+}
@@ -1,6 +1,10 @@
 package com.jfrog;
 
+import java.util.AbstractSet;
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -9,22 +13,67 @@ import java.util.Set;
 public class GradleDependencyNode {
     private final Set<String> children = new HashSet<>();
     // The Gradle configuration such as compileJava, implementation, testImplementation, etc.
-    private final Set<String> configurations = new HashSet<>();
+    // The nodes of a graph store them as a bitset over the symbols of a configuration names table shared by the graph.
+    // Nodes created without a table, such as deserialized nodes, use a plain set.
+    private final SymbolTable configurationNames;
+    private final BitSet configurationBits;
+    // Not named "configurations", so that Jackson deserializes the configurations through getConfigurations()
+    private final Set<String> configurationSet;
     private boolean unresolved;
+    // The Merkle hash of the node, written only when requested
+    private String hash;
 
     public GradleDependencyNode() {
+        this.configurationNames = null;
+        this.configurationBits = null;
+        this.configurationSet = new HashSet<>();
     }
 
     public GradleDependencyNode(String configuration) {
-        this.configurations.add(configuration);
+        this();
+        this.configurationSet.add(configuration);
+    }
+
+    /**
+     * @param configurationNames the configuration names table to index the configurations of the node by
+     */
+    public GradleDependencyNode(SymbolTable configurationNames) {
+        this.configurationNames = configurationNames;
+        this.configurationBits = new BitSet();
+        this.configurationSet = new ConfigurationsView();
     }
 
     public Set<String> getChildren() {
         return children;
     }
 
+    /**
+     * @return a modifiable view of the configuration names of the node.
+     */
     public Set<String> getConfigurations() {
-        return configurations;
+        return configurationSet;
+    }
+
+    /**
+     * Add the configurations of another node to this node. If both nodes share the same configuration names table,
+     * this is a word-wise OR of their bitsets.
+     *
+     * @param other the node to add the configurations of
+     */
+    public void addConfigurations(GradleDependencyNode other) {
+        if (configurationNames != null && other.configurationNames == configurationNames) {
+            configurationBits.or(other.configurationBits);
+        } else {
+            configurationSet.addAll(other.configurationSet);
+        }
+    }
+
+    /**
+     * @param configurationSymbols symbols of the configuration names table of this node to add to the node, which must
+     *                             have been created with a table
+     */
+    void addConfigurationSymbols(BitSet configurationSymbols) {
+        configurationBits.or(configurationSymbols);
     }
 
     public boolean isUnresolved() {
@@ -34,4 +83,87 @@ public class GradleDependencyNode {
     public void setUnresolved(boolean unresolved) {
         this.unresolved = unresolved;
     }
+
+    /**
+     * @return the {@link NodeHashes} hash of the node, or null if the output has no hashes.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    private class ConfigurationsView extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = configurationBits.nextSetBit(0);
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public String next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = configurationBits.nextSetBit(next + 1);
+                    return configurationNames.get(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    configurationBits.clear(last);
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return configurationBits.cardinality();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+            int symbol = configurationNames.lookup((String) o);
+            return symbol >= 0 && configurationBits.get(symbol);
+        }
+
+        @Override
+        public boolean add(String configuration) {
+            int symbol = configurationNames.intern(configuration);
+            if (configurationBits.get(symbol)) {
+                return false;
+            }
+            configurationBits.set(symbol);
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            configurationBits.clear(configurationNames.lookup((String) o));
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            configurationBits.clear();
+        }
+    }
 }
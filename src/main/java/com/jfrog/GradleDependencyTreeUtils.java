@@ -3,6 +3,7 @@ package com.jfrog;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ResolvableDependencies;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
@@ -11,10 +12,13 @@ import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.artifacts.result.ResolvedDependencyResult;
 import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Utils for building the GradleDependencyTree object. The reason for these utils is to make the GradleDependencyTree
@@ -23,8 +27,6 @@ import java.util.Set;
  * @author yahavi
  **/
 public class GradleDependencyTreeUtils {
-    // The maximum number of times a single dependency is populated, during the run of each configuration.
-    private static final int MAX_DEP_POPULATIONS_IN_CONFIG = 10;
 
     /**
      * Add Gradle configuration including its all dependencies.
@@ -37,79 +39,193 @@ public class GradleDependencyTreeUtils {
      * @param nodes         a map of all nodes mapped by their module ID (group:name:version)
      */
     public static void addConfiguration(Project ownerProject, GradleDependencyNode root, Configuration configuration, Map<String, GradleDependencyNode> nodes) {
+        // The root ID is never serialized - the root of the graph is merged into the root node
+        DependencyGraphBuilder graph = new DependencyGraphBuilder("", new SymbolTable(), new SymbolTable());
+        addConfiguration(ownerProject, graph, configuration, new ComponentMemo());
+        graph.mergeInto(root, nodes);
+    }
+
+    /**
+     * Add Gradle configuration including its all dependencies to the dependency graph of a project, reusing the
+     * children of components already populated by previous configurations of the same project.
+     *
+     * @param ownerProject  see {@link #addConfiguration(Project, GradleDependencyNode, Configuration, Map)}
+     * @param graph         the dependency graph of the project
+     * @param configuration resolved or unresolved Gradle configuration
+     * @param memo          the component memo of the project. Must be used with the same {@code graph} only
+     */
+    public static void addConfiguration(Project ownerProject, DependencyGraphBuilder graph, Configuration configuration, ComponentMemo memo) {
+        addConfiguration(ownerProject, graph, configuration, memo, null);
+    }
+
+    /**
+     * Add Gradle configuration including its all dependencies to the dependency graph of a project, and record the
+     * changes made to the graph by the resolution of the configuration.
+     *
+     * @param ownerProject  see {@link #addConfiguration(Project, GradleDependencyNode, Configuration, Map)}
+     * @param graph         the dependency graph of the project
+     * @param configuration resolved or unresolved Gradle configuration
+     * @param memo          the component memo of the project. Must be used with the same {@code graph} only
+     * @param trace         the trace to record the changes of a resolvable configuration to, or null
+     */
+    public static void addConfiguration(Project ownerProject, DependencyGraphBuilder graph, Configuration configuration, ComponentMemo memo, ResolutionTrace trace) {
         if (configuration.isCanBeResolved()) {
-            addResolvedConfiguration(ownerProject, root, configuration, nodes);
+            ResolvedComponentResult componentResult = configuration.getIncoming().getResolutionResult().getRoot();
+            addResolvedConfiguration(projectModuleIds(ownerProject), graph, configuration.getName(), componentResult, memo, trace);
         } else {
-            addUnresolvedConfiguration(root, configuration, nodes);
+            addUnresolvedConfiguration(graph, configuration.getName(), getDeclaredDependencyIds(configuration));
         }
     }
 
     /**
-     * Add resolved configuration. A resolved configuration may contain transitive dependencies.
+     * Add the resolution result of a configuration including all its dependencies to the dependency graph of a
+     * project. Unlike {@link #addConfiguration(Project, DependencyGraphBuilder, Configuration, ComponentMemo)}, no
+     * Gradle model object is needed, so the resolution result may be captured before the task is executed.
+     *
+     * @param projectModuleIds  the module IDs of the projects of the build by project path, used for project
+     *                          components with no {@link ModuleVersionIdentifier}
+     * @param graph             the dependency graph of the project
+     * @param configurationName the name of the resolved configuration
+     * @param rootComponent     the root of the resolution result of the configuration
+     * @param memo              the component memo of the project. Must be used with the same {@code graph} only
+     * @param trace             the trace to record the changes made to the graph to, or null
      */
-    private static void addResolvedConfiguration(Project ownerProject, GradleDependencyNode root, Configuration configuration, Map<String, GradleDependencyNode> nodes) {
-        root.getConfigurations().add(configuration.getName());
-        ResolvedComponentResult componentResult = configuration.getIncoming().getResolutionResult().getRoot();
-        Map<String, Integer> depPopulations = new HashMap<>();
-        for (DependencyResult dependency : componentResult.getDependencies()) {
-            populateTree(ownerProject, root, configuration.getName(), dependency, new HashSet<>(), nodes, depPopulations);
-        }
+    public static void addResolvedConfiguration(Map<String, String> projectModuleIds, DependencyGraphBuilder graph, String configurationName,
+                                                ResolvedComponentResult rootComponent, ComponentMemo memo, ResolutionTrace trace) {
+        addResolvedConfiguration(projectModuleIds::get, graph, configurationName, rootComponent, memo, trace);
+    }
+
+    private static void addResolvedConfiguration(Function<String, String> projectModuleIds, DependencyGraphBuilder graph, String configurationName,
+                                                 ResolvedComponentResult rootComponent, ComponentMemo memo, ResolutionTrace trace) {
+        int configurationSymbol = graph.getConfigurationNames().intern(configurationName);
+        graph.addConfiguration(DependencyGraphBuilder.ROOT, configurationSymbol);
+        populateTree(projectModuleIds, graph, configurationSymbol, rootComponent, memo, trace);
     }
 
     /**
-     * Add unresolved configuration. An unresolved configuration can contain only direct dependencies.
+     * Add the direct dependencies of an unresolved configuration to the dependency graph of a project.
      *
-     * @param root          the parent node
-     * @param configuration unresolved Gradle configuration
-     * @param nodes         a map of all nodes mapped by their module ID (group:name:version)
+     * @param graph             the dependency graph of the project
+     * @param configurationName the name of the unresolved configuration
+     * @param dependencyIds     the module IDs of the declared dependencies, see {@link #getDeclaredDependencyIds}
+     */
+    public static void addUnresolvedConfiguration(DependencyGraphBuilder graph, String configurationName, List<String> dependencyIds) {
+        int configurationSymbol = graph.getConfigurationNames().intern(configurationName);
+        for (String childId : dependencyIds) {
+            graph.addUnresolvedChild(DependencyGraphBuilder.ROOT, graph.getModuleIds().intern(childId), configurationSymbol);
+        }
+    }
+
+    /**
+     * @param configuration a Gradle configuration
+     * @return the module IDs of the dependencies declared by the configuration, in declaration order.
      */
-    private static void addUnresolvedConfiguration(GradleDependencyNode root, Configuration configuration, Map<String, GradleDependencyNode> nodes) {
+    public static List<String> getDeclaredDependencyIds(Configuration configuration) {
+        List<String> dependencyIds = new ArrayList<>();
         for (Dependency dependency : configuration.getDependencies()) {
-            GradleDependencyNode child = new GradleDependencyNode(configuration.getName());
-            child.setUnresolved(true);
             if (dependency.getVersion() != null) {
                 // Skip deps with no version (e.g. "implementation gradleApi()").
                 // Use buildModuleId so a null group becomes "unspecified" instead of the literal "null".
-                addChild(root, Utils.buildModuleId(dependency.getGroup(), dependency.getName(), dependency.getVersion()), child, nodes);
+                dependencyIds.add(Utils.buildModuleId(dependency.getGroup(), dependency.getName(), dependency.getVersion()));
             }
         }
+        return dependencyIds;
     }
 
     /**
-     * Recursively populate the dependency tree.
+     * Check whether a resolvable configuration has anything to resolve, without resolving it. A configuration whose
+     * inherited dependencies and dependency constraints are all empty always resolves to a root with no children.
+     * The dependencies are read from {@link Configuration#getIncoming()}, which runs the default dependencies and the
+     * withDependencies actions of the configuration hierarchy once, as resolution does, so that dependencies added by
+     * plugins at resolution time are taken into account.
      *
-     * @param ownerProject      see {@link #addConfiguration}; passed unchanged through recursion
-     *                          so the project-dep synthesizer can look up sibling subprojects
-     * @param node              the parent node
-     * @param configurationName the configuration name
-     * @param dependency        resolved or unresolved dependency
-     * @param addedChildren     a set used to remove duplications to make sure there is no loop in the tree
-     * @param nodes             a map of all nodes mapped by their module ID (group:name:version)
-     * @param depPopulations    a map of all node population counters mapped by their module ID (group:name:version)
+     * @param configuration the Gradle configuration
+     * @return true if the configuration or one of its parents declares dependencies or dependency constraints.
      */
-    private static void populateTree(Project ownerProject, GradleDependencyNode node, String configurationName, DependencyResult dependency, Set<String> addedChildren, Map<String, GradleDependencyNode> nodes, Map<String, Integer> depPopulations) {
-        GradleDependencyNode child = new GradleDependencyNode(configurationName);
-        if (dependency instanceof UnresolvedDependencyResult) {
-            child.setUnresolved(true);
-            addChild(node, dependency.getRequested().getDisplayName(), child, nodes);
-            return;
-        }
-        ResolvedDependencyResult resolvedDependency = (ResolvedDependencyResult) dependency;
-        ResolvedComponentResult selected = resolvedDependency.getSelected();
-        String nodeId = resolveNodeId(ownerProject, selected);
-        if (nodeId == null) {
-            // No usable identity (external dep not in any repo, or unsupported ComponentIdentifier subtype).
-            return;
-        }
-        int populations = depPopulations.getOrDefault(nodeId, 0);
-        if (!addedChildren.add(nodeId) || populations >= MAX_DEP_POPULATIONS_IN_CONFIG) {
-            return;
+    public static boolean hasDeclaredDependencies(Configuration configuration) {
+        ResolvableDependencies incoming = configuration.getIncoming();
+        return !incoming.getDependencies().isEmpty() || !incoming.getDependencyConstraints().isEmpty();
+    }
+
+    /**
+     * Populate the dependency tree of a configuration. Since the output is an adjacency map, the children of a
+     * component are computed only once per configuration: later edges to an already visited component are recorded
+     * without walking its subtree again, so the traversal runs in O(V+E).
+     * <p>
+     * The traversal is a depth-first search driven by an explicit stack of {@link Frame}s rather than by recursion,
+     * so arbitrarily deep dependency chains can't overflow the thread stack of the Gradle daemon.
+     *
+     * @param projectModuleIds    the module IDs of the projects of the build by project path; used by the
+     *                            project-dep synthesizer to look up sibling subprojects
+     * @param graph               the dependency graph of the project
+     * @param configurationSymbol the symbol of the configuration name
+     * @param rootComponent       the root of the resolution result of the configuration
+     * @param memo                the component memo of the project
+     * @param trace               the trace to record the changes made to the graph to, or null
+     */
+    private static void populateTree(Function<String, String> projectModuleIds, DependencyGraphBuilder graph, int configurationSymbol, ResolvedComponentResult rootComponent, ComponentMemo memo, ResolutionTrace trace) {
+        SymbolTable moduleIds = graph.getModuleIds();
+        // The module ID symbols of the components on the stack. Edges back to them are dropped to make sure there is no loop in the tree
+        BitSet path = new BitSet();
+        // The module ID symbols of the components whose children were already populated
+        BitSet visited = new BitSet();
+        String rootId = resolveNodeId(projectModuleIds, rootComponent);
+        if (rootId != null) {
+            // A dependency cycling back to the project itself must not turn the root into its own child
+            path.set(moduleIds.intern(rootId));
         }
-        depPopulations.put(nodeId, populations + 1);
-        for (DependencyResult dependencyResult : selected.getDependencies()) {
-            populateTree(ownerProject, child, configurationName, dependencyResult, new HashSet<>(addedChildren), nodes, depPopulations);
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(DependencyGraphBuilder.ROOT, rootComponent, -1, memo));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.next == frame.dependencies.length) {
+                stack.pop();
+                frame.finish(memo);
+                if (frame.symbol >= 0) {
+                    path.clear(frame.symbol);
+                    visited.set(frame.symbol);
+                }
+                continue;
+            }
+            int i = frame.next++;
+            DependencyResult dependency = frame.dependencies[i];
+            if (dependency instanceof UnresolvedDependencyResult) {
+                if (!frame.memoized) {
+                    frame.childSymbols[i] = moduleIds.intern(dependency.getRequested().getDisplayName());
+                }
+                graph.addUnresolvedChild(frame.node, frame.childSymbols[i], configurationSymbol);
+                if (trace != null) {
+                    trace.record(graph, ResolutionTrace.UNRESOLVED_CHILD, frame.node, graph.getNode(frame.childSymbols[i]));
+                }
+                continue;
+            }
+            ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+            if (!frame.memoized) {
+                String nodeId = resolveNodeId(projectModuleIds, selected);
+                frame.childSymbols[i] = nodeId == null ? -1 : moduleIds.intern(nodeId);
+            }
+            int symbol = frame.childSymbols[i];
+            if (symbol < 0) {
+                // No usable identity (external dep not in any repo, or unsupported ComponentIdentifier subtype).
+                continue;
+            }
+            if (visited.get(symbol)) {
+                graph.addEdge(frame.node, graph.getNode(symbol));
+                if (trace != null) {
+                    trace.record(graph, ResolutionTrace.EDGE, frame.node, graph.getNode(symbol));
+                }
+                continue;
+            }
+            if (path.get(symbol)) {
+                continue;
+            }
+            path.set(symbol);
+            int child = graph.addResolvedChild(frame.node, symbol, configurationSymbol);
+            if (trace != null) {
+                trace.record(graph, ResolutionTrace.RESOLVED_CHILD, frame.node, child);
+            }
+            stack.push(new Frame(child, selected, symbol, memo));
         }
-        addChild(node, nodeId, child, nodes);
     }
 
     /**
@@ -123,13 +239,17 @@ public class GradleDependencyTreeUtils {
      * @return the node id, or {@code null} if the component has no usable identity
      */
     static String resolveNodeId(Project ownerProject, ResolvedComponentResult selected) {
+        return resolveNodeId(projectModuleIds(ownerProject), selected);
+    }
+
+    private static String resolveNodeId(Function<String, String> projectModuleIds, ResolvedComponentResult selected) {
         ModuleVersionIdentifier moduleVersion = selected.getModuleVersion();
         if (moduleVersion != null) {
             return moduleVersion.toString();
         }
         ComponentIdentifier id = selected.getId();
         if (id instanceof ProjectComponentIdentifier) {
-            return synthesizeProjectNodeId(ownerProject, (ProjectComponentIdentifier) id);
+            return synthesizeProjectNodeId(projectModuleIds, (ProjectComponentIdentifier) id);
         }
         return null;
     }
@@ -145,24 +265,37 @@ public class GradleDependencyTreeUtils {
      * the chain survives, but the id won't merge cleanly with the child tree's root.
      */
     static String synthesizeProjectNodeId(Project ownerProject, ProjectComponentIdentifier id) {
+        return synthesizeProjectNodeId(projectModuleIds(ownerProject), id);
+    }
+
+    private static String synthesizeProjectNodeId(Function<String, String> projectModuleIds, ProjectComponentIdentifier id) {
         String path = id.getProjectPath();
         if (path == null) {
             return Utils.buildModuleId(null, null, null);
         }
-        if (ownerProject != null) {
-            Project subproject = ownerProject.findProject(path);
-            if (subproject != null) {
-                return Utils.buildModuleId(
-                        subproject.getGroup().toString(),
-                        subproject.getName(),
-                        subproject.getVersion().toString());
-            }
+        String moduleId = projectModuleIds.apply(path);
+        if (moduleId != null) {
+            return moduleId;
         }
         int lastColon = path.lastIndexOf(':');
         String name = lastColon >= 0 ? path.substring(lastColon + 1) : path;
         return Utils.buildModuleId(null, name, null);
     }
 
+    /**
+     * @param ownerProject the project owning the resolved configuration, or null
+     * @return a lookup of the module IDs of the projects of the build of {@code ownerProject} by project path.
+     */
+    private static Function<String, String> projectModuleIds(Project ownerProject) {
+        return path -> {
+            Project subproject = ownerProject == null ? null : ownerProject.findProject(path);
+            if (subproject == null) {
+                return null;
+            }
+            return Utils.buildModuleId(subproject.getGroup().toString(), subproject.getName(), subproject.getVersion().toString());
+        };
+    }
+
     /**
      * Add a child to the dependency tree.
      *
@@ -177,10 +310,39 @@ public class GradleDependencyTreeUtils {
             nodes.put(childId, childToAdd);
         } else {
             // If the child already exists, add the Gradle configurations of the input child
-            child.getConfigurations().addAll(childToAdd.getConfigurations());
+            child.addConfigurations(childToAdd);
             child.setUnresolved(child.isUnresolved() && childToAdd.isUnresolved());
             child.getChildren().addAll(childToAdd.getChildren());
         }
         parent.getChildren().add(childId);
     }
+
+    /**
+     * A component on the traversal stack, with the index of its next dependency to visit.
+     */
+    private static class Frame {
+        private final int node;
+        private final ResolvedComponentResult component;
+        private final int symbol;
+        private final DependencyResult[] dependencies;
+        private final int[] childSymbols;
+        private final boolean memoized;
+        private int next;
+
+        private Frame(int node, ResolvedComponentResult component, int symbol, ComponentMemo memo) {
+            this.node = node;
+            this.component = component;
+            this.symbol = symbol;
+            this.dependencies = component.getDependencies().toArray(new DependencyResult[0]);
+            int[] memoizedChildSymbols = memo.getChildSymbols(component, dependencies);
+            this.memoized = memoizedChildSymbols != null;
+            this.childSymbols = memoized ? memoizedChildSymbols : new int[dependencies.length];
+        }
+
+        private void finish(ComponentMemo memo) {
+            if (!memoized) {
+                memo.put(component, dependencies, childSymbols);
+            }
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.jfrog;
+
+/**
+ * The options of the JSON files written by {@link Utils}. The options are immutable, and each setter returns a copy
+ * with the option changed:
+ * <pre>
+ * JsonOutputOptions options = JsonOutputOptions.DEFAULT.compact(true).gzip(true);
+ * </pre>
+ */
+public class JsonOutputOptions {
+    /**
+     * Pretty-printed, uncompressed JSON without node hashes.
+     */
+    public static final JsonOutputOptions DEFAULT = new JsonOutputOptions(false, false, false);
+
+    private final boolean compact;
+    private final boolean gzip;
+    private final boolean nodeHashes;
+
+    private JsonOutputOptions(boolean compact, boolean gzip, boolean nodeHashes) {
+        this.compact = compact;
+        this.gzip = gzip;
+        this.nodeHashes = nodeHashes;
+    }
+
+    /**
+     * @param compact true to write the JSON without any whitespace, false to pretty-print it
+     * @return the options with the compact option changed.
+     */
+    public JsonOutputOptions compact(boolean compact) {
+        return new JsonOutputOptions(compact, gzip, nodeHashes);
+    }
+
+    /**
+     * @param gzip true to compress the file with gzip
+     * @return the options with the gzip option changed.
+     */
+    public JsonOutputOptions gzip(boolean gzip) {
+        return new JsonOutputOptions(compact, gzip, nodeHashes);
+    }
+
+    /**
+     * @param nodeHashes true to add the {@link NodeHashes} of the nodes of a project tree as a "hash" field. Ignored by
+     *                   the consolidated tree and the deltas
+     * @return the options with the node hashes option changed.
+     */
+    public JsonOutputOptions nodeHashes(boolean nodeHashes) {
+        return new JsonOutputOptions(compact, gzip, nodeHashes);
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public boolean isNodeHashes() {
+        return nodeHashes;
+    }
+}
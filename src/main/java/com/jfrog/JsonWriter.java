@@ -0,0 +1,262 @@
+package com.jfrog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static java.lang.System.lineSeparator;
+
+/**
+ * A streaming JSON emitter writing straight into a reusable char buffer. Strings are escaped according to RFC 8259.
+ * When pretty-printing, objects are written with a key per line and 2 spaces indentation, and arrays are written on a
+ * single line. In compact mode, no whitespace is written at all.
+ */
+public class JsonWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] LINE_SEPARATOR = lineSeparator().toCharArray();
+    // Valid in JSON strings but not in JavaScript string literals, so escaped as well
+    private static final char LINE_SEPARATOR_CHAR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR_CHAR = 0x2029;
+
+    private final Writer out;
+    private final boolean pretty;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    // Whether the object or array at each depth is an array, and whether it is still empty
+    private boolean[] arrays = new boolean[16];
+    private boolean[] empty = new boolean[16];
+    private int depth;
+    // Reused for sorting string collections
+    private String[] sortBuffer = new String[16];
+
+    /**
+     * @param out the writer to write the pretty-printed JSON to. The writer is flushed and closed by {@link #close()}.
+     */
+    public JsonWriter(Writer out) {
+        this(out, true);
+    }
+
+    /**
+     * @param out    the writer to write the JSON to. The writer is flushed and closed by {@link #close()}.
+     * @param pretty true to pretty-print the JSON, false to write it without any whitespace
+     */
+    public JsonWriter(Writer out, boolean pretty) {
+        this.out = out;
+        this.pretty = pretty;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{', false);
+    }
+
+    public JsonWriter endObject() throws IOException {
+        if (!empty[depth]) {
+            newLine(depth - 1);
+        }
+        depth--;
+        return write('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[', true);
+    }
+
+    public JsonWriter endArray() throws IOException {
+        depth--;
+        return write(']');
+    }
+
+    /**
+     * Write the name of the next member of the current object.
+     *
+     * @param name the member name
+     * @return this writer.
+     */
+    public JsonWriter name(String name) throws IOException {
+        if (!empty[depth]) {
+            write(',');
+        }
+        empty[depth] = false;
+        newLine(depth);
+        string(name);
+        write(':');
+        return pretty ? write(' ') : this;
+    }
+
+    /**
+     * Write a string value, either as a member value or as an array element.
+     *
+     * @param value the value
+     * @return this writer.
+     */
+    public JsonWriter value(String value) throws IOException {
+        arrayElement();
+        return string(value);
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        arrayElement();
+        return write(value ? "true" : "false");
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        arrayElement();
+        return write(Long.toString(value));
+    }
+
+    /**
+     * Write an array of strings.
+     *
+     * @param values the strings
+     * @param sorted whether to sort the strings in their natural order
+     * @return this writer.
+     */
+    public JsonWriter stringArray(Collection<String> values, boolean sorted) throws IOException {
+        beginArray();
+        if (sorted) {
+            int size = values.size();
+            if (size > sortBuffer.length) {
+                sortBuffer = new String[Math.max(size, sortBuffer.length * 2)];
+            }
+            String[] sortedValues = values.toArray(sortBuffer);
+            Arrays.sort(sortedValues, 0, size);
+            for (int i = 0; i < size; i++) {
+                value(sortedValues[i]);
+            }
+            Arrays.fill(sortBuffer, 0, size, null);
+        } else {
+            for (String value : values) {
+                value(value);
+            }
+        }
+        return endArray();
+    }
+
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private JsonWriter open(char c, boolean array) throws IOException {
+        arrayElement();
+        write(c);
+        if (++depth == empty.length) {
+            arrays = Arrays.copyOf(arrays, depth * 2);
+            empty = Arrays.copyOf(empty, depth * 2);
+        }
+        arrays[depth] = array;
+        empty[depth] = true;
+        return this;
+    }
+
+    /**
+     * Write the separator before a value, if the value is not the first element of an array.
+     */
+    private void arrayElement() throws IOException {
+        if (!arrays[depth]) {
+            return;
+        }
+        if (!empty[depth]) {
+            write(',');
+            if (pretty) {
+                write(' ');
+            }
+        }
+        empty[depth] = false;
+    }
+
+    private JsonWriter string(String value) throws IOException {
+        write('"');
+        int length = value.length();
+        int runStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != LINE_SEPARATOR_CHAR && c != PARAGRAPH_SEPARATOR_CHAR) {
+                continue;
+            }
+            write(value, runStart, i);
+            runStart = i + 1;
+            switch (c) {
+                case '"':
+                    write('\\').write('"');
+                    break;
+                case '\\':
+                    write('\\').write('\\');
+                    break;
+                case '\n':
+                    write('\\').write('n');
+                    break;
+                case '\r':
+                    write('\\').write('r');
+                    break;
+                case '\t':
+                    write('\\').write('t');
+                    break;
+                case '\b':
+                    write('\\').write('b');
+                    break;
+                case '\f':
+                    write('\\').write('f');
+                    break;
+                default:
+                    write('\\').write('u')
+                            .write(HEX_DIGITS[(c >> 12) & 0xf]).write(HEX_DIGITS[(c >> 8) & 0xf])
+                            .write(HEX_DIGITS[(c >> 4) & 0xf]).write(HEX_DIGITS[c & 0xf]);
+            }
+        }
+        write(value, runStart, length);
+        return write('"');
+    }
+
+    private void newLine(int indentation) throws IOException {
+        if (!pretty) {
+            return;
+        }
+        for (char c : LINE_SEPARATOR) {
+            write(c);
+        }
+        for (int i = 0; i < indentation; i++) {
+            write(' ').write(' ');
+        }
+    }
+
+    private JsonWriter write(char c) throws IOException {
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = c;
+        return this;
+    }
+
+    private JsonWriter write(String str) throws IOException {
+        write(str, 0, str.length());
+        return this;
+    }
+
+    private void write(String str, int start, int end) throws IOException {
+        while (start < end) {
+            if (position == buffer.length) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            int count = Math.min(end - start, buffer.length - position);
+            str.getChars(start, start + count, buffer, position);
+            position += count;
+            start += count;
+        }
+    }
+}
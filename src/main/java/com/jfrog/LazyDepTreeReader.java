@@ -0,0 +1,529 @@
+package com.jfrog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read a JSON dependency tree file without deserializing it. The file is memory-mapped and indexed in a single pass
+ * that records only the offsets and hashes of the node keys. A node is parsed when it is looked up, and its children
+ * are decoded one by one while they are iterated, so the heap usage is a few ints per node regardless of the size of
+ * the tree.
+ * <p>
+ * Both the pretty and the compact JSON trees are supported. Gzip-compressed trees must be decompressed first, and
+ * binary trees are read with {@link BinaryDepTreeReader#readGraph(File)}. The mapping is released when the reader is
+ * garbage collected, and the file must not be modified while it is read.
+ */
+public class LazyDepTreeReader {
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final ByteBuffer buffer;
+    private final String root;
+    private int size;
+    // Node index -> offset of the opening quote of the key, offset of the value and hash of the decoded key
+    private int[] keyOffsets = new int[16];
+    private int[] valueOffsets = new int[16];
+    private int[] keyHashes = new int[16];
+    // Open addressing hash table of node index + 1, or 0 for an empty slot
+    private int[] table;
+
+    private LazyDepTreeReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        String rootId = null;
+        boolean hasNodes = false;
+        int pos = skipWhitespace(expect(skipWhitespace(0), '{'));
+        while (byteAt(pos) != '}') {
+            String name = decodeString(pos);
+            pos = expect(skipWhitespace(skipString(pos)), ':');
+            pos = skipWhitespace(pos);
+            if ("root".equals(name)) {
+                rootId = decodeString(pos);
+                pos = skipString(pos);
+            } else if ("nodes".equals(name)) {
+                pos = indexNodes(pos);
+                hasNodes = true;
+            } else {
+                pos = skipValue(pos);
+            }
+            pos = skipWhitespace(pos);
+            if (byteAt(pos) != '}') {
+                pos = skipWhitespace(expect(pos, ','));
+            }
+        }
+        if (rootId == null || !hasNodes) {
+            throw new IOException("Not a JSON dependency tree: the root or the nodes are missing");
+        }
+        root = rootId;
+        buildTable();
+    }
+
+    /**
+     * Map and index a JSON dependency tree file.
+     *
+     * @param inputFile a dependency tree file in the JSON format
+     * @return the reader of the file.
+     * @throws IOException if the file can't be read or is not a valid dependency tree.
+     */
+    public static LazyDepTreeReader open(File inputFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File '" + inputFile + "' is too large to be mapped");
+            }
+            // The mapping stays valid after the channel is closed
+            return new LazyDepTreeReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return the module ID of the root node.
+     */
+    public String getRoot() {
+        return root;
+    }
+
+    /**
+     * @return the number of nodes in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id a module ID
+     * @return true if the tree contains the module.
+     */
+    public boolean contains(String id) {
+        return find(id) >= 0;
+    }
+
+    /**
+     * @param id a module ID
+     * @return the node of the module, or null if the module is not in the tree.
+     */
+    public Node getNode(String id) {
+        int node = find(id);
+        if (node < 0) {
+            return null;
+        }
+        try {
+            return new Node(id, valueOffsets[node]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the module IDs of all nodes, decoded while they are iterated, in the order of the file.
+     */
+    public Iterable<String> getIds() {
+        return () -> new Iterator<String>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return decodeString(keyOffsets[next++]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * A node of the tree. The configurations are decoded on demand, and the children while they are iterated.
+     */
+    public class Node {
+        private final String id;
+        private boolean unresolved;
+        private String hash;
+        // Offsets of the opening brackets of the arrays, or -1 if missing
+        private int configurationsOffset = -1;
+        private int childrenOffset = -1;
+
+        private Node(String id, int offset) throws IOException {
+            this.id = id;
+            int pos = expect(offset, '{');
+            pos = skipWhitespace(pos);
+            if (byteAt(pos) == '}') {
+                return;
+            }
+            while (true) {
+                String name = decodeString(pos);
+                pos = skipWhitespace(expect(skipWhitespace(skipString(pos)), ':'));
+                switch (name) {
+                    case "unresolved":
+                        unresolved = byteAt(pos) == 't';
+                        break;
+                    case "hash":
+                        hash = decodeString(pos);
+                        break;
+                    case "configurations":
+                        configurationsOffset = pos;
+                        break;
+                    case "children":
+                        childrenOffset = pos;
+                        break;
+                    default:
+                        break;
+                }
+                pos = skipWhitespace(skipValue(pos));
+                if (byteAt(pos) == '}') {
+                    return;
+                }
+                pos = skipWhitespace(expect(pos, ','));
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public boolean isUnresolved() {
+            return unresolved;
+        }
+
+        /**
+         * @return the {@link NodeHashes} hash of the node, or null if the tree has no hashes.
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the configuration names of the node.
+         */
+        public List<String> getConfigurations() {
+            List<String> configurations = new ArrayList<>();
+            for (String configuration : stringArray(configurationsOffset)) {
+                configurations.add(configuration);
+            }
+            return configurations;
+        }
+
+        /**
+         * @return the module IDs of the children of the node, decoded while they are iterated.
+         */
+        public Iterable<String> getChildren() {
+            return stringArray(childrenOffset);
+        }
+    }
+
+    private Iterable<String> stringArray(int offset) {
+        if (offset < 0) {
+            return Collections.emptyList();
+        }
+        return () -> new Iterator<String>() {
+            private int pos = startArray(offset);
+
+            @Override
+            public boolean hasNext() {
+                return byteAt(pos) != ']';
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    String value = decodeString(pos);
+                    pos = skipWhitespace(skipString(pos));
+                    if (byteAt(pos) == ',') {
+                        pos = skipWhitespace(pos + 1);
+                    }
+                    return value;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private int startArray(int offset) {
+        try {
+            return skipWhitespace(expect(offset, '['));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int indexNodes(int pos) throws IOException {
+        pos = skipWhitespace(expect(pos, '{'));
+        if (byteAt(pos) == '}') {
+            return pos + 1;
+        }
+        while (true) {
+            int keyOffset = pos;
+            int keyHash = hashKey(keyOffset);
+            pos = skipWhitespace(expect(skipWhitespace(skipString(pos)), ':'));
+            if (byteAt(pos) != '{') {
+                throw new IOException("Expected a node object at offset " + pos);
+            }
+            addNode(keyOffset, pos, keyHash);
+            pos = skipWhitespace(skipValue(pos));
+            if (byteAt(pos) == '}') {
+                return pos + 1;
+            }
+            pos = skipWhitespace(expect(pos, ','));
+        }
+    }
+
+    private void addNode(int keyOffset, int valueOffset, int keyHash) {
+        if (size == keyOffsets.length) {
+            keyOffsets = Arrays.copyOf(keyOffsets, size * 2);
+            valueOffsets = Arrays.copyOf(valueOffsets, size * 2);
+            keyHashes = Arrays.copyOf(keyHashes, size * 2);
+        }
+        keyOffsets[size] = keyOffset;
+        valueOffsets[size] = valueOffset;
+        keyHashes[size] = keyHash;
+        size++;
+    }
+
+    private void buildTable() throws IOException {
+        table = new int[Integer.highestOneBit(Math.max(size, 1) * 2) * 2];
+        int mask = table.length - 1;
+        for (int node = 0; node < size; node++) {
+            for (int slot = keyHashes[node] & mask; ; slot = (slot + 1) & mask) {
+                int existing = table[slot] - 1;
+                if (existing < 0) {
+                    table[slot] = node + 1;
+                    break;
+                }
+                // A duplicate key replaces the previous one, like in a map
+                if (keyHashes[existing] == keyHashes[node] && decodeString(keyOffsets[existing]).equals(decodeString(keyOffsets[node]))) {
+                    table[slot] = node + 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    private int find(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int node = table[slot] - 1;
+            if (keyHashes[node] == hash && keyEquals(keyOffsets[node], id, bytes)) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int offset, String id, byte[] bytes) {
+        for (int i = 0, pos = offset + 1; ; i++, pos++) {
+            byte b = byteAt(pos);
+            if (b == '"') {
+                return i == bytes.length;
+            }
+            if (b == '\\') {
+                try {
+                    return decodeString(offset).equals(id);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (i == bytes.length || b != bytes[i]) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the hash of the decoded key starting at the opening quote, equal to {@link #hash(byte[])} of its UTF-8 bytes.
+     */
+    private int hashKey(int offset) throws IOException {
+        int hash = FNV_OFFSET_BASIS;
+        for (int pos = offset + 1; ; pos++) {
+            byte b = byteAt(pos);
+            if (b == '"') {
+                return hash;
+            }
+            if (b == '\\') {
+                return hash(decodeString(offset).getBytes(StandardCharsets.UTF_8));
+            }
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private String decodeString(int offset) throws IOException {
+        expect(offset, '"');
+        StringBuilder escaped = null;
+        int segmentStart = offset + 1;
+        for (int pos = segmentStart; ; ) {
+            byte b = byteAt(pos);
+            if (b == '"') {
+                String segment = decodeUtf8(segmentStart, pos);
+                return escaped == null ? segment : escaped.append(segment).toString();
+            }
+            if (b != '\\') {
+                pos++;
+                continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder();
+            }
+            escaped.append(decodeUtf8(segmentStart, pos));
+            byte escape = byteAt(pos + 1);
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    escaped.append((char) escape);
+                    break;
+                case 'b':
+                    escaped.append('\b');
+                    break;
+                case 'f':
+                    escaped.append('\f');
+                    break;
+                case 'n':
+                    escaped.append('\n');
+                    break;
+                case 'r':
+                    escaped.append('\r');
+                    break;
+                case 't':
+                    escaped.append('\t');
+                    break;
+                case 'u':
+                    try {
+                        escaped.append((char) Integer.parseInt(decodeUtf8(pos + 2, pos + 6), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Invalid escape sequence at offset " + pos, e);
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw new IOException("Invalid escape sequence at offset " + pos);
+            }
+            pos += 2;
+            segmentStart = pos;
+        }
+    }
+
+    private String decodeUtf8(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(start);
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int skipString(int pos) throws IOException {
+        pos = expect(pos, '"');
+        while (true) {
+            byte b = byteAt(pos);
+            if (b == '"') {
+                return pos + 1;
+            }
+            pos += b == '\\' ? 2 : 1;
+        }
+    }
+
+    /**
+     * Skip a JSON value of any depth, without recursion.
+     */
+    private int skipValue(int pos) throws IOException {
+        int depth = 0;
+        do {
+            pos = skipWhitespace(pos);
+            byte b = byteAt(pos);
+            switch (b) {
+                case '{':
+                case '[':
+                    depth++;
+                    pos++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    pos++;
+                    break;
+                case ',':
+                case ':':
+                    if (depth == 0) {
+                        throw new IOException("Unexpected '" + (char) b + "' at offset " + pos);
+                    }
+                    pos++;
+                    break;
+                case '"':
+                    pos = skipString(pos);
+                    break;
+                default:
+                    int start = pos;
+                    while (pos < buffer.limit() && isScalarByte(buffer.get(pos))) {
+                        pos++;
+                    }
+                    if (pos == start) {
+                        throw new IOException("Unexpected '" + (char) b + "' at offset " + pos);
+                    }
+            }
+        } while (depth > 0);
+        if (depth < 0) {
+            throw new IOException("Unbalanced brackets before offset " + pos);
+        }
+        return pos;
+    }
+
+    private static boolean isScalarByte(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'E';
+    }
+
+    private int skipWhitespace(int pos) {
+        while (pos < buffer.limit()) {
+            byte b = buffer.get(pos);
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private int expect(int pos, char expected) throws IOException {
+        if (byteAt(pos) != expected) {
+            throw new IOException("Expected '" + expected + "' at offset " + pos);
+        }
+        return pos + 1;
+    }
+
+    private byte byteAt(int pos) {
+        if (pos >= buffer.limit()) {
+            throw new UncheckedIOException(new IOException("Unexpected end of the dependency tree at offset " + pos));
+        }
+        return buffer.get(pos);
+    }
+}
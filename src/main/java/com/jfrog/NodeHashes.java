@@ -0,0 +1,198 @@
+package com.jfrog;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Content-addressed (Merkle) hashes of the nodes of a frozen dependency graph. The hash of a node is a SHA-256 digest
+ * of its module ID, its unresolved flag and the sorted hashes of its children, so two nodes have the same hash if and
+ * only if the subgraphs reachable from them are identical. Configurations are not part of the hash.
+ * <p>
+ * Nodes on a cycle can't be hashed from their children's hashes. The nodes of each strongly connected component
+ * share a digest of the whole component - its module IDs, unresolved flags, internal edges and the hashes of the
+ * children outside it - and the hash of each of them is a digest of its module ID, its unresolved flag and the
+ * component digest.
+ */
+public class NodeHashes {
+    private static final byte ACYCLIC = 0;
+    private static final byte CYCLIC = 1;
+
+    private final FrozenDependencyGraph graph;
+    private final MessageDigest digest;
+    private final String[] hashes;
+    // Node index -> index of its strongly connected component, or -1 while its component is not complete
+    private final int[] components;
+
+    private NodeHashes(FrozenDependencyGraph graph) {
+        this.graph = graph;
+        digest = Utils.newSha256Digest();
+        hashes = new String[graph.size()];
+        components = new int[graph.size()];
+        Arrays.fill(components, -1);
+    }
+
+    /**
+     * Compute the hashes of all nodes in one post-order pass over the graph.
+     *
+     * @param graph the frozen dependency graph
+     * @return the lowercase hex hashes, indexed by node index.
+     */
+    public static String[] compute(FrozenDependencyGraph graph) {
+        NodeHashes nodeHashes = new NodeHashes(graph);
+        nodeHashes.traverse();
+        return nodeHashes.hashes;
+    }
+
+    /**
+     * Iterative Tarjan's algorithm. Components are completed in reverse topological order, so the children outside a
+     * component are always hashed before the component itself.
+     */
+    private void traverse() {
+        int size = graph.size();
+        int[] indexes = new int[size];
+        Arrays.fill(indexes, -1);
+        int[] lowLinks = new int[size];
+        BitSet onStack = new BitSet(size);
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int[] callNodes = new int[size];
+        int[] callEdges = new int[size];
+        int nextIndex = 0;
+        int nextComponent = 0;
+        for (int start = 0; start < size; start++) {
+            if (indexes[start] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            indexes[start] = lowLinks[start] = nextIndex++;
+            stack[stackSize++] = start;
+            onStack.set(start);
+            callNodes[depth] = start;
+            callEdges[depth++] = 0;
+            while (depth > 0) {
+                int node = callNodes[depth - 1];
+                int edge = callEdges[depth - 1];
+                if (edge < graph.getChildCount(node)) {
+                    callEdges[depth - 1]++;
+                    int child = graph.getChild(node, edge);
+                    if (indexes[child] < 0) {
+                        indexes[child] = lowLinks[child] = nextIndex++;
+                        stack[stackSize++] = child;
+                        onStack.set(child);
+                        callNodes[depth] = child;
+                        callEdges[depth++] = 0;
+                    } else if (onStack.get(child)) {
+                        lowLinks[node] = Math.min(lowLinks[node], indexes[child]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callNodes[depth - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[node]);
+                }
+                if (lowLinks[node] == indexes[node]) {
+                    int componentStart = stackSize;
+                    do {
+                        onStack.clear(stack[--componentStart]);
+                    } while (stack[componentStart] != node);
+                    int[] members = Arrays.copyOfRange(stack, componentStart, stackSize);
+                    stackSize = componentStart;
+                    for (int member : members) {
+                        components[member] = nextComponent;
+                    }
+                    hashComponent(members, nextComponent++);
+                }
+            }
+        }
+    }
+
+    private void hashComponent(int[] members, int component) {
+        if (members.length == 1 && !hasChild(members[0], members[0])) {
+            int node = members[0];
+            digestNode(node, ACYCLIC);
+            String[] childHashes = new String[graph.getChildCount(node)];
+            for (int i = 0; i < childHashes.length; i++) {
+                childHashes[i] = hashes[graph.getChild(node, i)];
+            }
+            Arrays.sort(childHashes);
+            digestInt(childHashes.length);
+            for (String childHash : childHashes) {
+                digestString(childHash);
+            }
+            hashes[node] = Utils.toHex(digest.digest());
+            return;
+        }
+
+        // Sort the members by node index, which is the module ID order, so that the digest is independent of the traversal
+        Arrays.sort(members);
+        String[] externalHashes = new String[0];
+        int externalCount = 0;
+        digestInt(members.length);
+        for (int node : members) {
+            digestString(graph.getId(node));
+            digest.update(graph.isUnresolved(node) ? (byte) 1 : (byte) 0);
+            int internalCount = 0;
+            for (int i = 0; i < graph.getChildCount(node); i++) {
+                if (components[graph.getChild(node, i)] == component) {
+                    internalCount++;
+                }
+            }
+            digestInt(internalCount);
+            for (int i = 0; i < graph.getChildCount(node); i++) {
+                int child = graph.getChild(node, i);
+                if (components[child] == component) {
+                    digestString(graph.getId(child));
+                } else {
+                    if (externalCount == externalHashes.length) {
+                        externalHashes = Arrays.copyOf(externalHashes, Math.max(4, externalCount * 2));
+                    }
+                    externalHashes[externalCount++] = hashes[child];
+                }
+            }
+        }
+        // Children reached from several members are digested once
+        String[] sortedExternalHashes = Arrays.stream(externalHashes, 0, externalCount).sorted().distinct().toArray(String[]::new);
+        digestInt(sortedExternalHashes.length);
+        for (String externalHash : sortedExternalHashes) {
+            digestString(externalHash);
+        }
+        byte[] componentDigest = digest.digest();
+        for (int node : members) {
+            digestNode(node, CYCLIC);
+            digest.update(componentDigest);
+            hashes[node] = Utils.toHex(digest.digest());
+        }
+    }
+
+    private boolean hasChild(int node, int child) {
+        for (int i = 0; i < graph.getChildCount(node); i++) {
+            if (graph.getChild(node, i) == child) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void digestNode(int node, byte kind) {
+        digest.update(kind);
+        digestString(graph.getId(node));
+        digest.update(graph.isUnresolved(node) ? (byte) 1 : (byte) 0);
+    }
+
+    // Strings are length-prefixed, so that the digested fields can't be shifted into each other
+    private void digestString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digestInt(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void digestInt(int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+}
@@ -0,0 +1,46 @@
+package com.jfrog;
+
+import org.gradle.api.GradleException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The formats of the dependency tree files.
+ */
+public enum OutputFormat {
+    // The JSON format described in the README. The files have no extension, as before the binary format was added.
+    JSON(""),
+    // The binary format described in BinaryDepTreeReader
+    BINARY(".bin");
+
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return the extension of the dependency tree files in this format, before the gzip extension.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param value the case-insensitive name of an output format, or null for the default JSON format
+     * @return the output format.
+     */
+    public static OutputFormat parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return JSON;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new GradleException("Unsupported output format '" + value + "', expected one of " +
+                    Arrays.stream(values()).map(format -> format.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.jfrog;
+
+import org.gradle.api.GradleException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Write output files on a bounded pool of background threads. Each file is written to a temporary file in the same
+ * directory and then atomically moved into place, so that readers never see a partially written file. When all
+ * threads are busy and the queue is full, the submitting thread writes the file itself, which bounds the number of
+ * pending outputs held in memory.
+ */
+public class ParallelFileWriter implements Closeable {
+    // The suffix of the temporary files, which are never listed as outputs
+    public static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final ThreadPoolExecutor executor;
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    /**
+     * @param threads the number of background threads
+     */
+    public ParallelFileWriter(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gradle-dep-tree-writer-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Write a file in the background.
+     *
+     * @param outputFile the file to write
+     * @param write      writes the content of the file into the given temporary file
+     */
+    public void submit(File outputFile, Consumer<File> write) {
+        futures.add(executor.submit(() -> writeAtomically(outputFile, write)));
+    }
+
+    /**
+     * Wait for all submitted files to be written.
+     *
+     * @throws GradleException if any of the files could not be written.
+     */
+    public void awaitCompletion() {
+        GradleException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GradleException("Interrupted while writing the dependency trees", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (failure == null) {
+                    failure = cause instanceof GradleException ? (GradleException) cause : new GradleException(cause.getMessage(), cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        futures.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Write a file into a temporary file in the same directory, and then atomically move it into place.
+     *
+     * @param outputFile the file to write
+     * @param write      writes the content of the file into the given temporary file
+     */
+    public static void writeAtomically(File outputFile, Consumer<File> write) {
+        Path target = outputFile.toPath();
+        // Created by the write, rather than by Files.createTempFile, to get the same permissions as any other output file
+        Path temp = target.resolveSibling(outputFile.getName() + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX);
+        try {
+            write.accept(temp.toFile());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Best effort: temporary files are never listed as outputs
+            }
+        }
+    }
+}
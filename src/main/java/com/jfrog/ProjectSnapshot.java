@@ -0,0 +1,71 @@
+package com.jfrog;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the generateDepTrees task needs to create the dependency tree of a project, captured from the
+ * {@link org.gradle.api.Project} before the task is executed, so that the task doesn't access the project model at
+ * execution time and can be stored in the configuration cache.
+ */
+public class ProjectSnapshot {
+    private final String path;
+    private final String name;
+    private final String fileName;
+    private final String moduleId;
+    private final int filteredOutConfigurations;
+    private final List<ConfigurationSnapshot> configurations;
+    private final Map<String, String> buildModuleIds;
+
+    /**
+     * @param path                      the path of the project
+     * @param name                      the name of the project
+     * @param fileName                  the name of the output files of the project
+     * @param moduleId                  the module ID of the project
+     * @param filteredOutConfigurations the number of configurations excluded by the configuration filter
+     * @param configurations            the configurations of the project accepted by the configuration filter
+     * @param buildModuleIds            the module IDs of the projects of the build of the project by project path
+     */
+    public ProjectSnapshot(String path, String name, String fileName, String moduleId, int filteredOutConfigurations,
+                           List<ConfigurationSnapshot> configurations, Map<String, String> buildModuleIds) {
+        this.path = path;
+        this.name = name;
+        this.fileName = fileName;
+        this.moduleId = moduleId;
+        this.filteredOutConfigurations = filteredOutConfigurations;
+        this.configurations = configurations;
+        this.buildModuleIds = buildModuleIds;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getModuleId() {
+        return moduleId;
+    }
+
+    public int getFilteredOutConfigurations() {
+        return filteredOutConfigurations;
+    }
+
+    public List<ConfigurationSnapshot> getConfigurations() {
+        return configurations;
+    }
+
+    /**
+     * @return the module IDs of the projects of the build of the project by project path, to name the project
+     * components of the resolution results.
+     */
+    public Map<String, String> getBuildModuleIds() {
+        return buildModuleIds;
+    }
+}
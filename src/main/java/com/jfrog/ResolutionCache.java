@@ -0,0 +1,215 @@
+package com.jfrog;
+
+import org.gradle.api.GradleException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A persistent cache of the {@link ResolutionTrace}s of configurations, keyed by a fingerprint of everything the
+ * resolution of a configuration depends on. A hit rebuilds the part of the graph of the configuration without resolving
+ * it. The cache is shared by all builds using the same directory, so each entry is written atomically to its own file.
+ * <p>
+ * The size of the cache is capped: once the entries exceed {@link #getMaxSize()} bytes, the least recently used
+ * entries are evicted. The last modified time of an entry is its last use.
+ * <p>
+ * An entry may also be stored under a name of its own, such as the name of its configuration, so that each
+ * configuration has a single entry that is replaced whenever the key of the configuration changes.
+ */
+public class ResolutionCache {
+    static final String ENTRY_EXTENSION = ".trace";
+    private static final byte[] MAGIC = {'G', 'D', 'T', 'R'};
+    private static final int VERSION = 2;
+
+    private final File directory;
+    private final long maxSize;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger evictions = new AtomicInteger();
+
+    /**
+     * @param directory the directory of the cache entries, created if missing
+     * @param maxSize   the maximal total size of the entries in bytes
+     */
+    public ResolutionCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Get the trace of a configuration, and mark the entry as recently used.
+     *
+     * @param key the fingerprint of the configuration
+     * @return the trace, or null if there is no readable entry for the key.
+     */
+    public ResolutionTrace get(String key) {
+        return get(key, key);
+    }
+
+    /**
+     * Get the trace of a configuration stored under a name, and mark the entry as recently used.
+     *
+     * @param name the name of the entry
+     * @param key  the fingerprint of the configuration
+     * @return the trace, or null if there is no readable entry with the name, or if it was stored with another key.
+     */
+    public ResolutionTrace get(String name, String key) {
+        File entry = getEntryFile(name);
+        if (!entry.isFile()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(entry.toPath())) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a resolution trace");
+            }
+            if (!key.equals(in.readUTF())) {
+                // Stored for a previous state of the configuration
+                misses.incrementAndGet();
+                return null;
+            }
+            ResolutionTrace trace = ResolutionTrace.read(in);
+            if (in.read() != -1) {
+                throw new IOException("Unexpected data after the resolution trace");
+            }
+            // Best effort: an entry that is not marked is only evicted earlier
+            entry.setLastModified(System.currentTimeMillis());
+            hits.incrementAndGet();
+            return trace;
+        } catch (IOException e) {
+            // Corrupted or concurrently evicted - resolve the configuration again, and overwrite the entry
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Store the trace of a configuration.
+     *
+     * @param key   the fingerprint of the configuration
+     * @param trace the trace of the resolution of the configuration
+     * @throws GradleException if the entry could not be written.
+     */
+    public void put(String key, ResolutionTrace trace) {
+        put(key, key, trace);
+    }
+
+    /**
+     * Store the trace of a configuration under a name, replacing the entry previously stored under the name.
+     *
+     * @param name  the name of the entry
+     * @param key   the fingerprint of the configuration
+     * @param trace the trace of the resolution of the configuration
+     * @throws GradleException if the entry could not be written.
+     */
+    public void put(String name, String key, ResolutionTrace trace) {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new GradleException("Failed to create the resolution cache directory " + directory);
+        }
+        ParallelFileWriter.writeAtomically(getEntryFile(name), file -> {
+            try (OutputStream outputStream = Files.newOutputStream(file.toPath());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+                out.write(MAGIC);
+                out.writeByte(VERSION);
+                out.writeUTF(key);
+                trace.write(out);
+            } catch (IOException e) {
+                throw new GradleException("File '" + file + "' is not writable", e);
+            }
+        });
+    }
+
+    /**
+     * Delete the least recently used entries until the total size of the entries is within the cap.
+     */
+    public void evict() {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION));
+        if (entries == null) {
+            return;
+        }
+        long size = 0;
+        long[] lastUses = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            size += entries[i].length();
+        }
+        if (size <= maxSize) {
+            return;
+        }
+        // Read the times once, as they may change while sorting
+        Integer[] order = new Integer[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            lastUses[i] = entries[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastUses[i]));
+        for (int i = 0; i < order.length && size > maxSize; i++) {
+            File entry = entries[order[i]];
+            long length = entry.length();
+            if (entry.delete()) {
+                size -= length;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Delete the entries stored under other names.
+     *
+     * @param names the names of the entries to keep
+     */
+    public void retain(Collection<String> names) {
+        Set<String> fileNames = new HashSet<>();
+        for (String name : names) {
+            fileNames.add(getEntryFile(name).getName());
+        }
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION) && !fileNames.contains(name));
+        if (entries == null) {
+            return;
+        }
+        for (File entry : entries) {
+            if (entry.delete()) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private File getEntryFile(String name) {
+        return new File(directory, name + ENTRY_EXTENSION);
+    }
+}
@@ -0,0 +1,158 @@
+package com.jfrog;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ComponentSelectionRules;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.DependencySubstitutions;
+import org.gradle.api.artifacts.ResolutionStrategy;
+import org.gradle.api.artifacts.dsl.ComponentMetadataHandler;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.initialization.resolve.DependencyResolutionManagement;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionRules;
+import org.gradle.api.logging.Logger;
+import org.gradle.internal.ImmutableActionSet;
+import org.gradle.internal.management.DependencyResolutionManagementInternal;
+import org.gradle.util.GradleVersion;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Detect the rules that change the resolution of configurations and can't be described without running them:
+ * dependency substitution rules (including eachDependency rules, used by BOM plugins to set versions), component
+ * selection rules, capability resolution rules, dependency locking and component metadata rules. The task is never
+ * up-to-date when the projects it fingerprints have rules, and configurations with rules are never folded with other
+ * configurations, cached or stored.
+ * <p>
+ * Gradle has no public API to query the rules. The resolution strategy is reached through the public API, and the rules
+ * are read through its internal interfaces, or from private fields where there is none, as they are known from Gradle
+ * {@link #MIN_VERSION}. On older versions, or if the rules can't be read, the configurations are assumed to have rules,
+ * and a warning is logged once.
+ */
+public class ResolutionRules {
+    static final GradleVersion MIN_VERSION = GradleVersion.version("5.6");
+    // The settings declare component metadata rules since Gradle 6.8
+    static final GradleVersion SETTINGS_RULES_VERSION = GradleVersion.version("6.8");
+    static final String UNREADABLE_WARNING = "Can't read the resolution rules of the build ({}). " +
+            "The configurations are assumed to have rules, so the task is never up-to-date, and they are never folded, " +
+            "cached or stored.";
+
+    private final Logger logger;
+    private final GradleVersion gradleVersion;
+    private boolean warned;
+
+    /**
+     * @param logger the logger of the task, to warn once when the rules can't be read
+     */
+    public ResolutionRules(Logger logger) {
+        this(logger, GradleVersion.current());
+    }
+
+    ResolutionRules(Logger logger, GradleVersion gradleVersion) {
+        this.logger = logger;
+        this.gradleVersion = gradleVersion.getBaseVersion();
+    }
+
+    /**
+     * @param configuration a Gradle configuration
+     * @return true if the resolution strategy of the configuration may have rules.
+     */
+    public boolean hasResolutionRules(Configuration configuration) {
+        if (gradleVersion.compareTo(MIN_VERSION) < 0) {
+            return unreadable("Gradle " + gradleVersion.getVersion() + " is not supported");
+        }
+        try {
+            ResolutionStrategy resolutionStrategy = configuration.getResolutionStrategy();
+            if (((ResolutionStrategyInternal) resolutionStrategy).isDependencyLockingEnabled()) {
+                return true;
+            }
+            DependencySubstitutions substitutions = resolutionStrategy.getDependencySubstitution();
+            Object ruleAction = ((DependencySubstitutionRules) substitutions).getRuleAction();
+            if (!(ruleAction instanceof ImmutableActionSet)) {
+                // Older versions compose the rules when they are requested
+                ruleAction = getField(substitutions, "substitutionRules");
+            }
+            if (!isEmpty(ruleAction)) {
+                return true;
+            }
+            ComponentSelectionRules componentSelection = resolutionStrategy.getComponentSelection();
+            if (!((ComponentSelectionRulesInternal) componentSelection).getRules().isEmpty()) {
+                return true;
+            }
+            return !isEmpty(getField(resolutionStrategy.getCapabilitiesResolution(), "actions"));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return unreadable(e.toString());
+        }
+    }
+
+    /**
+     * @param project a Gradle project
+     * @return true if the component metadata rules of the project, or those of the settings, may apply to its
+     * configurations.
+     */
+    public boolean hasComponentMetadataRules(Project project) {
+        if (gradleVersion.compareTo(MIN_VERSION) < 0) {
+            return unreadable("Gradle " + gradleVersion.getVersion() + " is not supported");
+        }
+        try {
+            if (((Iterable<?>) getField(project.getDependencies().getComponents(), "metadataRuleContainer")).iterator().hasNext()) {
+                return true;
+            }
+            return gradleVersion.compareTo(SETTINGS_RULES_VERSION) >= 0 && hasSettingsMetadataRules(project);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return unreadable(e.toString());
+        }
+    }
+
+    private static boolean hasSettingsMetadataRules(Project project) {
+        Settings settings = ((GradleInternal) project.getGradle()).getSettings();
+        DependencyResolutionManagement management = settings.getDependencyResolutionManagement();
+        // Apply the rules of the settings to a handler recording whether any rule is registered
+        AtomicBoolean registered = new AtomicBoolean();
+        ComponentMetadataHandler recorder = (ComponentMetadataHandler) Proxy.newProxyInstance(ComponentMetadataHandler.class.getClassLoader(),
+                new Class<?>[]{ComponentMetadataHandler.class}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("equals") ? proxy == args[0] :
+                                method.getName().equals("hashCode") ? System.identityHashCode(proxy) : "ComponentMetadataHandler recorder";
+                    }
+                    registered.set(true);
+                    return method.getReturnType().isInstance(proxy) ? proxy : null;
+                });
+        ((DependencyResolutionManagementInternal) management).applyRules(recorder);
+        return registered.get();
+    }
+
+    private boolean unreadable(String reason) {
+        if (!warned) {
+            warned = true;
+            logger.warn(UNREADABLE_WARNING, reason);
+        }
+        return true;
+    }
+
+    private static boolean isEmpty(Object actions) {
+        if (actions instanceof ImmutableActionSet) {
+            return ((ImmutableActionSet<?>) actions).isEmpty();
+        }
+        return ((Collection<?>) actions).isEmpty();
+    }
+
+    private static Object getField(Object target, String fieldName) throws ReflectiveOperationException {
+        // Gradle decorates its model objects with generated subclasses
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field.get(target);
+            } catch (NoSuchFieldException e) {
+                // Look up the superclass
+            }
+        }
+        throw new NoSuchFieldException(fieldName);
+    }
+}
@@ -0,0 +1,161 @@
+package com.jfrog;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changes made by the resolution of a single configuration to the {@link DependencyGraphBuilder} of a project, in
+ * the order they were made. Replaying a trace on a graph has the same effect as resolving the configuration again, so
+ * the {@link ResolutionCache} stores traces and replays them instead of resolving configurations that are unchanged.
+ * <p>
+ * The trace refers to nodes by module ID, so that it can be replayed on a graph whose nodes were added in another
+ * order. Index 0 is the root of the graph, as the module ID of the project is not part of the resolution.
+ */
+public class ResolutionTrace {
+    static final byte RESOLVED_CHILD = 0;
+    static final byte UNRESOLVED_CHILD = 1;
+    static final byte EDGE = 2;
+
+    // The module IDs of the nodes of the trace, except for the root
+    private final List<String> ids = new ArrayList<>();
+    // Module ID symbol -> index in the trace, while recording
+    private final Map<Integer, Integer> indexBySymbol = new HashMap<>();
+    private byte[] kinds = new byte[16];
+    private int[] parents = new int[16];
+    private int[] children = new int[16];
+    private int size;
+
+    /**
+     * @return the number of changes in the trace.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Record a change made to a graph by the resolution of the configuration.
+     *
+     * @param graph  the graph the change was made to
+     * @param kind   {@link #RESOLVED_CHILD}, {@link #UNRESOLVED_CHILD} or {@link #EDGE}
+     * @param parent the parent node index
+     * @param child  the child node index
+     */
+    void record(DependencyGraphBuilder graph, byte kind, int parent, int child) {
+        add(kind, indexOf(graph, parent), indexOf(graph, child));
+    }
+
+    /**
+     * Apply the changes of the trace to a graph, and add the configuration to its root.
+     *
+     * @param graph               the dependency graph of the project
+     * @param configurationSymbol the symbol of the configuration name
+     */
+    public void replay(DependencyGraphBuilder graph, int configurationSymbol) {
+        int[] symbols = new int[ids.size() + 1];
+        symbols[0] = graph.getSymbol(DependencyGraphBuilder.ROOT);
+        for (int i = 0; i < ids.size(); i++) {
+            symbols[i + 1] = graph.getModuleIds().intern(ids.get(i));
+        }
+        graph.addConfiguration(DependencyGraphBuilder.ROOT, configurationSymbol);
+        for (int i = 0; i < size; i++) {
+            // The parent was added by a previous change of the trace
+            int parent = graph.getNode(symbols[parents[i]]);
+            int childSymbol = symbols[children[i]];
+            if (kinds[i] == RESOLVED_CHILD) {
+                graph.addResolvedChild(parent, childSymbol, configurationSymbol);
+            } else if (kinds[i] == UNRESOLVED_CHILD) {
+                graph.addUnresolvedChild(parent, childSymbol, configurationSymbol);
+            } else {
+                graph.addEdge(parent, graph.getNode(childSymbol));
+            }
+        }
+    }
+
+    /**
+     * Write the trace: a varint count of module IDs followed by the module IDs, then a varint count of changes followed
+     * by a kind byte and the varint trace indices of the parent and the child of each change.
+     *
+     * @param out the output stream
+     * @throws IOException in case of any I/O error.
+     */
+    void write(DataOutputStream out) throws IOException {
+        Utils.writeVarint(out, ids.size());
+        for (String id : ids) {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            Utils.writeVarint(out, bytes.length);
+            out.write(bytes);
+        }
+        Utils.writeVarint(out, size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(kinds[i]);
+            Utils.writeVarint(out, parents[i]);
+            Utils.writeVarint(out, children[i]);
+        }
+    }
+
+    /**
+     * @param in the input stream of a trace written by {@link #write(DataOutputStream)}
+     * @return the trace.
+     * @throws IOException if the stream can't be read or is not a valid trace.
+     */
+    static ResolutionTrace read(DataInputStream in) throws IOException {
+        ResolutionTrace trace = new ResolutionTrace();
+        int idsCount = BinaryDepTreeReader.readVarint(in);
+        for (int i = 0; i < idsCount; i++) {
+            byte[] bytes = new byte[BinaryDepTreeReader.readVarint(in)];
+            in.readFully(bytes);
+            trace.ids.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        int size = BinaryDepTreeReader.readVarint(in);
+        // The nodes added by the changes read so far. Replays look up the parents and the targets of edges in the graph,
+        // so they must be the root or nodes added by previous changes.
+        BitSet added = new BitSet(idsCount + 1);
+        added.set(0);
+        for (int i = 0; i < size; i++) {
+            byte kind = in.readByte();
+            int parent = BinaryDepTreeReader.readVarint(in);
+            int child = BinaryDepTreeReader.readVarint(in);
+            if (kind < RESOLVED_CHILD || kind > EDGE || parent > idsCount || child > idsCount || !added.get(parent) ||
+                    (kind == EDGE && !added.get(child))) {
+                throw new IOException("Invalid resolution trace change " + i);
+            }
+            added.set(child);
+            trace.add(kind, parent, child);
+        }
+        return trace;
+    }
+
+    private int indexOf(DependencyGraphBuilder graph, int node) {
+        if (node == DependencyGraphBuilder.ROOT) {
+            return 0;
+        }
+        int symbol = graph.getSymbol(node);
+        Integer index = indexBySymbol.get(symbol);
+        if (index == null) {
+            ids.add(graph.getModuleIds().get(symbol));
+            index = ids.size();
+            indexBySymbol.put(symbol, index);
+        }
+        return index;
+    }
+
+    private void add(byte kind, int parent, int child) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, size * 2);
+            parents = Arrays.copyOf(parents, size * 2);
+            children = Arrays.copyOf(children, size * 2);
+        }
+        kinds[size] = kind;
+        parents[size] = parent;
+        children[size] = child;
+        size++;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jfrog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Map strings such as module IDs or configuration names to dense ints. Each distinct string is stored and hashed
+ * once per run, and the dependency graphs refer to it by its symbol until they are serialized.
+ */
+public class SymbolTable {
+    private final Map<String, Integer> symbols = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @param value the string to intern
+     * @return the symbol of the string. Symbols are allocated sequentially from 0.
+     */
+    public int intern(String value) {
+        Integer symbol = symbols.get(value);
+        if (symbol == null) {
+            symbol = values.size();
+            symbols.put(value, symbol);
+            values.add(value);
+        }
+        return symbol;
+    }
+
+    /**
+     * @param value a string
+     * @return the symbol of the string, or -1 if the string was never interned.
+     */
+    public int lookup(String value) {
+        Integer symbol = symbols.get(value);
+        return symbol == null ? -1 : symbol;
+    }
+
+    /**
+     * @param symbol a symbol returned by {@link #intern(String)}
+     * @return the string of the symbol.
+     */
+    public String get(int symbol) {
+        return values.get(symbol);
+    }
+
+    /**
+     * @return the number of symbols in the table.
+     */
+    public int size() {
+        return values.size();
+    }
+}
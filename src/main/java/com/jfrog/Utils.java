@@ -2,19 +2,25 @@ package com.jfrog;
 
 import org.gradle.api.GradleException;
 
-import java.io.*;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
-
-import static java.lang.System.lineSeparator;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author yahavi
  **/
 public class Utils {
-    private static final String indentationSpace = "  ";
-
     /**
      * Placeholder for any missing component of a Gradle module id (group / name / version).
      * All id-producing sites must agree on this value or per-subproject tree files won't
@@ -22,6 +28,12 @@ public class Utils {
      */
     public static final String UNSPECIFIED_ID_PART = "unspecified";
 
+    // The file extension of gzip-compressed dependency tree files
+    public static final String GZIP_EXTENSION = ".gz";
+    // Large enough for the deflater to work on whole chunks of the output
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     /**
      * Build a {@code group:name:version} module id, substituting {@link #UNSPECIFIED_ID_PART}
      * for any null/empty component. Single source of truth for the placeholder format.
@@ -35,53 +47,312 @@ public class Utils {
     }
 
     public static void saveToFileAsJson(File outputFile, GradleDepTreeResults results) {
-        try (FileWriter fileWriter = new FileWriter(outputFile);
-             Writer writer = new BufferedWriter(fileWriter)) {
-            writer.append("{").append(lineSeparator());
-            writer.append(indentationSpace).append(quotedKey("root")).append("\"").append(results.getRoot()).append("\",").append(lineSeparator());
-            writer.append(indentationSpace).append(quotedKey("nodes"));
-            appendMap(writer, results.getNodes(), indentationSpace);
-            writer.append(lineSeparator()).append("}");
-            writer.flush();
+        try (JsonWriter writer = newJsonWriter(outputFile, JsonOutputOptions.DEFAULT)) {
+            writer.beginObject();
+            writer.name("root").value(results.getRoot());
+            writer.name("nodes").beginObject();
+            // Sort the node keys once, so that the output is identical for identical trees
+            Map<String, GradleDependencyNode> nodes = results.getNodes();
+            String[] ids = nodes.keySet().toArray(new String[0]);
+            Arrays.sort(ids);
+            for (String id : ids) {
+                GradleDependencyNode node = nodes.get(id);
+                writer.name(id).beginObject();
+                writer.name("unresolved").value(node.isUnresolved());
+                writer.name("configurations").stringArray(node.getConfigurations(), true);
+                writer.name("children").stringArray(node.getChildren(), true);
+                writer.endObject();
+            }
+            writer.endObject();
+            writer.endObject();
         } catch (IOException e) {
             throw new GradleException("File '" + outputFile + "' is not writable", e);
         }
     }
 
-    private static void appendToFileAsJson(Writer writer, GradleDependencyNode dependencyTree, String baseIndentation) throws IOException {
-        writer.append("{").append(lineSeparator());
-        String keyIndentation = baseIndentation + indentationSpace;
-        writer.append(keyIndentation).append(quotedKey("unresolved")).append(String.valueOf(dependencyTree.isUnresolved())).append(",").append(lineSeparator());
-        writer.append(keyIndentation).append(quotedKey("configurations")).append(stringSetToJson(dependencyTree.getConfigurations())).append(",").append(lineSeparator());
-        writer.append(keyIndentation).append(quotedKey("children")).append(stringSetToJson(dependencyTree.getChildren()));
-        writer.append(lineSeparator()).append(baseIndentation).append("}");
+    /**
+     * Save a frozen dependency graph in the same JSON format as {@link #saveToFileAsJson(File, GradleDepTreeResults)}.
+     * The graph is written directly from its CSR arrays, without building the map-based results.
+     *
+     * @param outputFile the output file
+     * @param graph      the frozen dependency graph
+     */
+    public static void saveToFileAsJson(File outputFile, FrozenDependencyGraph graph) {
+        saveToFileAsJson(outputFile, graph, JsonOutputOptions.DEFAULT);
     }
 
-    private static String quotedKey(String str) {
-        return "\"" + str + "\": ";
+    /**
+     * Save a frozen dependency graph as JSON.
+     *
+     * @param outputFile the output file
+     * @param graph      the frozen dependency graph
+     * @param options    the options of the JSON file
+     */
+    public static void saveToFileAsJson(File outputFile, FrozenDependencyGraph graph, JsonOutputOptions options) {
+        try (JsonWriter writer = newJsonWriter(outputFile, options)) {
+            writer.beginObject();
+            writeGraphMembers(writer, graph, options.isNodeHashes() ? NodeHashes.compute(graph) : null);
+            writer.endObject();
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        }
     }
 
-    private static String stringSetToJson(Set<String> strSet) {
-        return strSet.stream()
-                .sorted()
-                .map(str -> "\"" + str + "\"")
-                .collect(Collectors.joining(", ", "[", "]"));
+    /**
+     * Write the "root" and "nodes" members of a frozen dependency graph into the current JSON object.
+     *
+     * @param writer the JSON writer
+     * @param graph  the frozen dependency graph
+     * @param hashes the hashes of the nodes indexed by node index, or null to omit them
+     * @throws IOException in case of any I/O error.
+     */
+    static void writeGraphMembers(JsonWriter writer, FrozenDependencyGraph graph, String[] hashes) throws IOException {
+        writer.name("root").value(graph.getRoot());
+        writer.name("nodes").beginObject();
+        for (int node = 0; node < graph.size(); node++) {
+            writer.name(graph.getId(node)).beginObject();
+            writer.name("unresolved").value(graph.isUnresolved(node));
+            if (hashes != null) {
+                writer.name("hash").value(hashes[node]);
+            }
+            writer.name("configurations").beginArray();
+            for (int i = 0; i < graph.getConfigurationCount(node); i++) {
+                writer.value(graph.getConfiguration(node, i));
+            }
+            writer.endArray();
+            writer.name("children").beginArray();
+            for (int i = 0; i < graph.getChildCount(node); i++) {
+                writer.value(graph.getId(graph.getChild(node, i)));
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        writer.endObject();
     }
 
-    @SuppressWarnings("SameParameterValue")
-    private static void appendMap(Writer writer, Map<String, GradleDependencyNode> map, String baseIndentation) throws IOException {
-        String keyIndentation = baseIndentation + indentationSpace;
-        boolean firstItem = true;
-        writer.append("{").append(lineSeparator());
-        for (Map.Entry<String, GradleDependencyNode> entry : map.entrySet()) {
-            if (firstItem) {
-                firstItem = false;
-            } else {
-                writer.append(",").append(lineSeparator());
+    /**
+     * Save the consolidated dependency graph of several projects as a single JSON document:
+     * <pre>
+     * {
+     *   "projects": {"&lt;project path&gt;": "&lt;root module ID&gt;", ...},
+     *   "nodes": {
+     *     "&lt;module ID&gt;": {
+     *       "unresolved": false,
+     *       "configurations": {"&lt;project path&gt;": ["&lt;configuration&gt;", ...], ...},
+     *       "children": ["&lt;module ID&gt;", ...]
+     *     }, ...
+     *   }
+     * }
+     * </pre>
+     *
+     * @param outputFile the output file
+     * @param graph      the consolidated dependency graph
+     * @param options    the options of the JSON file
+     */
+    public static void saveToFileAsJson(File outputFile, ConsolidatedDependencyGraph graph, JsonOutputOptions options) {
+        SymbolTable moduleIds = graph.getModuleIds();
+        try (JsonWriter writer = newJsonWriter(outputFile, options)) {
+            writer.beginObject();
+            writer.name("projects").beginObject();
+            for (Map.Entry<String, String> entry : graph.getProjectRoots().entrySet()) {
+                writer.name(entry.getKey()).value(entry.getValue());
             }
-            writer.append(keyIndentation).append(quotedKey(entry.getKey()));
-            appendToFileAsJson(writer, entry.getValue(), keyIndentation);
+            writer.endObject();
+            writer.name("nodes").beginObject();
+            for (int node : graph.getSortedNodes()) {
+                writer.name(moduleIds.get(node)).beginObject();
+                writer.name("unresolved").value(graph.isUnresolved(node));
+                writer.name("configurations").beginObject();
+                for (Map.Entry<String, String[]> entry : graph.getConfigurations(node).entrySet()) {
+                    writer.name(entry.getKey()).beginArray();
+                    for (String configuration : entry.getValue()) {
+                        writer.value(configuration);
+                    }
+                    writer.endArray();
+                }
+                writer.endObject();
+                int[] children = graph.getChildren(node);
+                String[] childIds = new String[children.length];
+                for (int i = 0; i < children.length; i++) {
+                    childIds[i] = moduleIds.get(children[i]);
+                }
+                writer.name("children").stringArray(Arrays.asList(childIds), true);
+                writer.endObject();
+            }
+            writer.endObject();
+            writer.endObject();
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        }
+    }
+
+    /**
+     * Save the delta between the previous and the current dependency graph of a project as a JSON document:
+     * <pre>
+     * {
+     *   "root": "&lt;root module ID&gt;",
+     *   "previousRoot": "&lt;root module ID of the previous graph, omitted if there is none&gt;",
+     *   "addedNodes": {"&lt;module ID&gt;": {"unresolved": false, "configurations": [...]}, ...},
+     *   "changedNodes": {"&lt;module ID&gt;": {"unresolved": false, "configurations": [...]}, ...},
+     *   "removedNodes": ["&lt;module ID&gt;", ...],
+     *   "addedEdges": {"&lt;parent module ID&gt;": ["&lt;child module ID&gt;", ...], ...},
+     *   "removedEdges": {"&lt;parent module ID&gt;": ["&lt;child module ID&gt;", ...], ...}
+     * }
+     * </pre>
+     *
+     * @param outputFile the output file
+     * @param delta      the delta between the graphs
+     * @param options    the options of the JSON file
+     */
+    public static void saveToFileAsJson(File outputFile, DependencyGraphDelta delta, JsonOutputOptions options) {
+        FrozenDependencyGraph graph = delta.getCurrent();
+        try (JsonWriter writer = newJsonWriter(outputFile, options)) {
+            writer.beginObject();
+            writer.name("root").value(graph.getRoot());
+            if (delta.getPreviousRoot() != null) {
+                writer.name("previousRoot").value(delta.getPreviousRoot());
+            }
+            writer.name("addedNodes");
+            writeDeltaNodes(writer, graph, delta.getAddedNodes());
+            writer.name("changedNodes");
+            writeDeltaNodes(writer, graph, delta.getChangedNodes());
+            writer.name("removedNodes").stringArray(delta.getRemovedNodes(), false);
+            writer.name("addedEdges");
+            writeDeltaEdges(writer, delta.getAddedEdges());
+            writer.name("removedEdges");
+            writeDeltaEdges(writer, delta.getRemovedEdges());
+            writer.endObject();
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        }
+    }
+
+    private static void writeDeltaNodes(JsonWriter writer, FrozenDependencyGraph graph, List<String> ids) throws IOException {
+        writer.beginObject();
+        for (String id : ids) {
+            int node = graph.getNode(id);
+            writer.name(id).beginObject();
+            writer.name("unresolved").value(graph.isUnresolved(node));
+            writer.name("configurations").beginArray();
+            for (int i = 0; i < graph.getConfigurationCount(node); i++) {
+                writer.value(graph.getConfiguration(node, i));
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        writer.endObject();
+    }
+
+    private static void writeDeltaEdges(JsonWriter writer, Map<String, List<String>> edges) throws IOException {
+        writer.beginObject();
+        for (Map.Entry<String, List<String>> entry : edges.entrySet()) {
+            writer.name(entry.getKey()).stringArray(entry.getValue(), false);
+        }
+        writer.endObject();
+    }
+
+    /**
+     * Save a frozen dependency graph in the binary format described in {@link BinaryDepTreeReader}.
+     *
+     * @param outputFile the output file
+     * @param graph      the frozen dependency graph
+     */
+    public static void saveToFileAsBinary(File outputFile, FrozenDependencyGraph graph) {
+        saveToFileAsBinary(outputFile, graph, false);
+    }
+
+    /**
+     * Save a frozen dependency graph in the binary format described in {@link BinaryDepTreeReader}.
+     *
+     * @param outputFile the output file
+     * @param graph      the frozen dependency graph
+     * @param gzip       true to compress the file with gzip
+     */
+    public static void saveToFileAsBinary(File outputFile, FrozenDependencyGraph graph, boolean gzip) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(newOutputStream(outputFile, gzip), 1 << 16))) {
+            out.write(BinaryDepTreeReader.MAGIC);
+            out.writeByte(BinaryDepTreeReader.VERSION);
+            writeVarint(out, graph.size());
+            writeVarint(out, graph.getConfigurationNamesCount());
+            writeVarint(out, graph.getRootNode());
+            for (int node = 0; node < graph.size(); node++) {
+                writeString(out, graph.getId(node));
+            }
+            for (int i = 0; i < graph.getConfigurationNamesCount(); i++) {
+                writeString(out, graph.getConfigurationName(i));
+            }
+            for (int node = 0; node < graph.size(); node++) {
+                out.writeByte(graph.isUnresolved(node) ? BinaryDepTreeReader.UNRESOLVED_FLAG : 0);
+                writeVarint(out, graph.getChildCount(node));
+                for (int i = 0, previous = 0; i < graph.getChildCount(node); i++) {
+                    int child = graph.getChild(node, i);
+                    writeVarint(out, child - previous);
+                    previous = child;
+                }
+                writeVarint(out, graph.getConfigurationCount(node));
+                for (int i = 0, previous = 0; i < graph.getConfigurationCount(node); i++) {
+                    int configuration = graph.getConfigurationIndex(node, i);
+                    writeVarint(out, configuration - previous);
+                    previous = configuration;
+                }
+            }
+        } catch (IOException e) {
+            throw new GradleException("File '" + outputFile + "' is not writable", e);
+        }
+    }
+
+    /**
+     * @return a new SHA-256 message digest.
+     */
+    public static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new GradleException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    /**
+     * @param bytes the bytes to encode
+     * @return the lowercase hex encoding of the bytes.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static JsonWriter newJsonWriter(File outputFile, JsonOutputOptions options) throws IOException {
+        return new JsonWriter(new OutputStreamWriter(newOutputStream(outputFile, options.isGzip()), StandardCharsets.UTF_8), !options.isCompact());
+    }
+
+    private static OutputStream newOutputStream(File outputFile, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(outputFile.toPath());
+        if (!gzip) {
+            return out;
+        }
+        try {
+            return new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
         }
-        writer.append(lineSeparator()).append(baseIndentation).append("}");
     }
 }
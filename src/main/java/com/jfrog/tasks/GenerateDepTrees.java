@@ -1,30 +1,62 @@
 package com.jfrog.tasks;
 
-import com.jfrog.GradleDepTreeResults;
-import com.jfrog.GradleDependencyNode;
+import com.jfrog.ComponentMemo;
+import com.jfrog.ConfigurationFilter;
+import com.jfrog.ConfigurationFingerprint;
+import com.jfrog.BinaryDepTreeReader;
+import com.jfrog.ConfigurationSnapshot;
+import com.jfrog.ConsolidatedDependencyGraph;
+import com.jfrog.DepTreeStreamWriter;
+import com.jfrog.DependencyGraphBuilder;
+import com.jfrog.DependencyGraphDelta;
+import com.jfrog.FrozenDependencyGraph;
+import com.jfrog.JsonOutputOptions;
+import com.jfrog.OutputFormat;
+import com.jfrog.ParallelFileWriter;
+import com.jfrog.ProjectSnapshot;
+import com.jfrog.ResolutionCache;
+import com.jfrog.ResolutionRules;
+import com.jfrog.ResolutionTrace;
+import com.jfrog.SymbolTable;
 import com.jfrog.Utils;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.ResolvableDependencies;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.internal.project.ProjectState;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.*;
+import org.gradle.api.tasks.Optional;
 import org.gradle.internal.build.BuildStateRegistry;
 import org.gradle.internal.build.IncludedBuildState;
+import org.gradle.util.GradleVersion;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
 
-import static com.jfrog.GradleDependencyTreeUtils.addConfiguration;
+import static com.jfrog.GradleDependencyTreeUtils.addResolvedConfiguration;
+import static com.jfrog.GradleDependencyTreeUtils.addUnresolvedConfiguration;
+import static com.jfrog.GradleDependencyTreeUtils.getDeclaredDependencyIds;
+import static com.jfrog.GradleDependencyTreeUtils.hasDeclaredDependencies;
 
 /**
  * Represents the generateDepTrees Gradle task.
@@ -38,31 +70,111 @@ public class GenerateDepTrees extends DefaultTask {
     public static final String INCLUDE_ALL_BUILD_FILES = "com.jfrog.includeAllBuildFiles";
     public static final String CURATION_AUDIT_MODE = "com.jfrog.curationAuditMode";
     public static final String INCLUDE_INCLUDED_BUILDS = "com.jfrog.includeIncludedBuilds";
+    public static final String INCLUDE_CONFIGURATIONS = "com.jfrog.includeConfigurations";
+    public static final String EXCLUDE_CONFIGURATIONS = "com.jfrog.excludeConfigurations";
+    public static final String COMPACT_OUTPUT = "com.jfrog.compactOutput";
+    public static final String OUTPUT_FORMAT = "com.jfrog.outputFormat";
+    public static final String GZIP_OUTPUT = "com.jfrog.gzipOutput";
+    public static final String CONSOLIDATED_OUTPUT = "com.jfrog.consolidatedOutput";
+    public static final String STREAM_OUTPUT_FILE = "com.jfrog.streamOutputFile";
+    public static final String NODE_HASHES = "com.jfrog.nodeHashes";
+    public static final String DELTA_OUTPUT = "com.jfrog.deltaOutput";
+    public static final String RESOLUTION_CACHE = "com.jfrog.resolutionCache";
+    public static final String RESOLUTION_CACHE_DIR = "com.jfrog.resolutionCacheDir";
+    public static final String RESOLUTION_CACHE_MAX_SIZE = "com.jfrog.resolutionCacheMaxSize";
+    public static final String INCREMENTAL_CONFIGURATIONS = "com.jfrog.incrementalConfigurations";
+    // The name of the output file in consolidated output mode. Not a valid base64 string, so it can't clash with a project output file.
+    static final String CONSOLIDATED_OUTPUT_FILE_NAME = "consolidated.json";
+    // The suffix of the delta files, added to the name of the project output file before the gzip extension
+    static final String DELTA_FILE_SUFFIX = ".delta.json";
+    // The directory of the binary snapshots of the previous run's trees, which are compared with the current trees in delta mode
+    static final String SNAPSHOTS_DIR = "snapshots";
+    // The directory of the stored resolution traces of the configurations of each project, in incremental mode
+    static final String CONFIGURATIONS_DIR = "configurations";
+    // Serialization is I/O and compression bound, so a few threads are enough to overlap it with the resolution
+    private static final int WRITER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    // The default size cap of the resolution cache, in megabytes
+    private static final long DEFAULT_RESOLUTION_CACHE_MAX_SIZE = 256;
+    // Changes whenever the resolution traces of the same inputs may differ, to ignore the entries of previous versions
+    private static final String RESOLUTION_CACHE_KEY_VERSION = "1";
+    // The lazy root component of a resolution result was added in Gradle 7.4
+    private static final boolean LAZY_ROOT_COMPONENT = GradleVersion.current().compareTo(GradleVersion.version("7.4")) >= 0;
 
-    private final Path pluginOutputDir = Paths.get(getProject().getRootProject().getBuildDir().getPath(), "gradle-dep-tree");
+    // The task doesn't access the project model when executed, so that it can be stored in the configuration cache.
+    // Everything the action needs is captured at configuration time, and the model is used by transient fields only.
+    private final File pluginOutputDir = new File(getProject().getRootProject().getBuildDir(), "gradle-dep-tree");
+    private final String projectPath = getProject().getPath();
+    private final boolean rootProjectTask = getProject() == getProject().getRootProject();
+    private final File gradleUserHomeDir = getProject().getGradle().getGradleUserHomeDir();
+    private final File rootDir = getProject().getRootDir();
     private final boolean includeAllBuildFiles;
     private final boolean includeIncludedBuilds;
+    private final String includeConfigurations;
+    private final String excludeConfigurations;
+    private final transient ConfigurationFilter configurationFilter;
+    private final boolean compactOutput;
+    private final OutputFormat outputFormat;
+    private final boolean gzipOutput;
+    private final boolean consolidatedOutput;
+    private final String streamOutputFile;
+    private final boolean nodeHashes;
+    private final boolean deltaOutput;
+    private final boolean resolutionCache;
+    private final String resolutionCacheDir;
+    private final long resolutionCacheMaxSize;
+    private final boolean incrementalConfigurations;
+    // Group:name -> project, and project path -> declared dependencies fingerprint, computed on first use
+    private transient Map<String, Project> projectsByModule;
+    private final transient Map<String, String> projectFingerprints = new HashMap<>();
+    // Created on first use, to warn once per task if the resolution rules can't be read
+    private transient ResolutionRules resolutionRules;
+    // Computed when the inputs of the task are fingerprinted, or when the configuration cache entry is stored
+    private final Provider<String> declaredDependenciesFingerprint = getProject().provider(this::computeDeclaredDependenciesFingerprint);
+    private final Provider<Boolean> fingerprintedResolutionRules = getProject().provider(this::hasFingerprintedResolutionRules);
+    private final FileCollection resolutionFiles = getProject().files((Callable<List<File>>) this::listResolutionFiles);
+    private final FileCollection buildscriptClasspath = getProject().files((Callable<List<Object>>) this::listBuildscriptClasspath);
+    private final FileCollection outputFiles = getProject().files((Callable<List<File>>) this::listOutputFiles);
+    private final Provider<List<ProjectSnapshot>> projectSnapshots = getProject().provider(this::snapshotRelatedProjects);
 
     public GenerateDepTrees() {
         includeAllBuildFiles = Boolean.parseBoolean(System.getProperty(INCLUDE_ALL_BUILD_FILES, "false"));
         includeIncludedBuilds = Boolean.parseBoolean(System.getProperty(INCLUDE_INCLUDED_BUILDS, "false"));
+        includeConfigurations = System.getProperty(INCLUDE_CONFIGURATIONS);
+        excludeConfigurations = System.getProperty(EXCLUDE_CONFIGURATIONS);
+        configurationFilter = new ConfigurationFilter(includeConfigurations, excludeConfigurations);
+        compactOutput = Boolean.parseBoolean(System.getProperty(COMPACT_OUTPUT, "false"));
+        outputFormat = OutputFormat.parse(System.getProperty(OUTPUT_FORMAT));
+        gzipOutput = Boolean.parseBoolean(System.getProperty(GZIP_OUTPUT, "false"));
+        consolidatedOutput = Boolean.parseBoolean(System.getProperty(CONSOLIDATED_OUTPUT, "false"));
+        streamOutputFile = System.getProperty(STREAM_OUTPUT_FILE);
+        nodeHashes = Boolean.parseBoolean(System.getProperty(NODE_HASHES, "false"));
+        deltaOutput = Boolean.parseBoolean(System.getProperty(DELTA_OUTPUT, "false"));
+        resolutionCache = Boolean.parseBoolean(System.getProperty(RESOLUTION_CACHE, "false"));
+        resolutionCacheDir = System.getProperty(RESOLUTION_CACHE_DIR);
+        resolutionCacheMaxSize = parseResolutionCacheMaxSize(System.getProperty(RESOLUTION_CACHE_MAX_SIZE));
+        incrementalConfigurations = Boolean.parseBoolean(System.getProperty(INCREMENTAL_CONFIGURATIONS, "false"));
+        // A streaming consumer waits for the records of every run, so the task is never up-to-date or loaded from the
+        // build cache when streaming. The deltas depend on the snapshots of the previous run, which are not inputs, so
+        // the same goes for the delta output. Resolution rules are code, which the fingerprint can't describe, so the
+        // task is never up-to-date when the fingerprinted projects have any. The specs are serializable and capture no
+        // task state, to be stored in the configuration cache.
+        boolean streaming = streamOutputFile != null;
+        boolean delta = deltaOutput;
+        Provider<Boolean> hasResolutionRules = fingerprintedResolutionRules;
+        getOutputs().upToDateWhen((Spec<Task> & Serializable) element -> !streaming && !delta && !hasResolutionRules.get());
+        getOutputs().doNotCacheIf("The trees are streamed to '" + STREAM_OUTPUT_FILE + "'",
+                (Spec<Task> & Serializable) element -> streaming);
+        getOutputs().doNotCacheIf("The deltas depend on the snapshots of the previous run",
+                (Spec<Task> & Serializable) element -> delta);
         // When scanning all build files from the root task, subproject task instances are redundant
         // and would race on the summary file if they also wrote it.
         setImpliesSubProjects(!includeAllBuildFiles);
-        setOnlyIf(element -> {
+        setOnlyIf((Spec<Task> & Serializable) element -> {
             if (System.getProperty(OUTPUT_FILE_PROPERTY) == null) {
                 throw new GradleException("'" + OUTPUT_FILE_PROPERTY + "' system property is mandatory");
             }
             return true;
         });
-
-        // On Gradle 7.4+, mark this task as incompatible with the configuration cache
-        List<Integer> gradleVersionParts = Arrays.stream(getProject().getGradle().getGradleVersion().split("\\."))
-                .map(Integer::valueOf)
-                .collect(Collectors.toList());
-        if (gradleVersionParts.get(0) >= 8 || (gradleVersionParts.get(0) == 7 && gradleVersionParts.get(1) >= 4)) {
-            notCompatibleWithConfigurationCache("Accesses projects at execution time");
-        }
     }
 
     @Inject
@@ -79,20 +191,228 @@ public class GenerateDepTrees extends DefaultTask {
 
     /**
      * This method is used by Gradle, to decide whether this task is up-to-date or should be running.
-     * If the build.gradle of the project or a build.gradle file of a parent project was changed, the cache should be invalidated.
+     * The fingerprint covers the declared dependencies, constraints, exclude rules and attributes of the configurations
+     * and the repositories of the related projects, and of the projects they depend on, wherever they are declared.
+     * Edits to the build scripts that don't change these declarations, such as comments or formatting, keep the task
+     * up-to-date. The resolution rules it can't describe make the task run every time, and the plugins that may
+     * register them are covered by {@link #getBuildscriptClasspath()}.
      *
-     * @return a list of the build.gradle files of the project and its parents.
+     * @return a SHA-256 digest of the declared dependencies of the related projects.
+     */
+    @Input
+    public Provider<String> getDeclaredDependenciesFingerprint() {
+        return declaredDependenciesFingerprint;
+    }
+
+    private String computeDeclaredDependenciesFingerprint() {
+        MessageDigest digest = Utils.newSha256Digest();
+        for (Project project : getFingerprintedProjects()) {
+            update(digest, getProjectFingerprint(project));
+        }
+        return Utils.toHex(digest.digest());
+    }
+
+    /**
+     * @return true if a configuration of the fingerprinted projects may have resolution rules, or component metadata
+     * rules apply to them.
+     */
+    private boolean hasFingerprintedResolutionRules() {
+        for (Project project : getFingerprintedProjects()) {
+            if (getResolutionRules().hasComponentMetadataRules(project)) {
+                getLogger().info("{} has component metadata rules, so the task is never up-to-date", project);
+                return true;
+            }
+            for (Configuration configuration : project.getConfigurations()) {
+                if (configuration.isCanBeResolved() && getResolutionRules().hasResolutionRules(configuration)) {
+                    getLogger().info("{} has resolution rules, so the task is never up-to-date", configuration);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The files that affect the resolution without being part of the declared dependencies: the settings, the Gradle
+     * properties, the version catalogs and the dependency locks. Files that don't exist are listed too, so that their
+     * creation invalidates the task.
+     *
+     * @return the resolution input files of the build and of the related projects.
      */
     @InputFiles
-    @Classpath
-    public List<File> getInputFile() {
-        List<File> inputFiles = new ArrayList<>();
-        for (Project project = getProject(); project != null; project = project.getParent()) {
-            inputFiles.add(project.getBuildFile());
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getResolutionFiles() {
+        return resolutionFiles;
+    }
+
+    private List<File> listResolutionFiles() {
+        List<File> inputFiles = new ArrayList<>(Arrays.asList(
+                new File(rootDir, "settings.gradle"),
+                new File(rootDir, "settings.gradle.kts"),
+                new File(rootDir, "gradle.properties"),
+                new File(rootDir, "gradle/libs.versions.toml"),
+                new File(rootDir, "gradle/dependency-locks")));
+        File[] catalogs = new File(rootDir, "gradle").listFiles((dir, name) -> name.endsWith(".versions.toml"));
+        if (catalogs != null) {
+            Arrays.sort(catalogs);
+            for (File catalog : catalogs) {
+                if (!inputFiles.contains(catalog)) {
+                    inputFiles.add(catalog);
+                }
+            }
+        }
+        for (Project project : getFingerprintedProjects()) {
+            inputFiles.add(new File(project.getProjectDir(), "gradle.lockfile"));
+            if (!project.getProjectDir().equals(rootDir)) {
+                inputFiles.add(new File(project.getProjectDir(), "gradle.properties"));
+            }
         }
         return inputFiles;
     }
 
+    /**
+     * @return the buildscript classpath of the fingerprinted projects and their parents, holding the plugins that may
+     * register resolution rules.
+     */
+    @Classpath
+    public FileCollection getBuildscriptClasspath() {
+        return buildscriptClasspath;
+    }
+
+    private List<Object> listBuildscriptClasspath() {
+        Set<Project> projects = new LinkedHashSet<>();
+        for (Project project : getFingerprintedProjects()) {
+            for (Project parent = project; parent != null; parent = parent.getParent()) {
+                projects.add(parent);
+            }
+        }
+        List<Object> classpath = new ArrayList<>();
+        for (Project project : projects) {
+            Configuration configuration = project.getBuildscript().getConfigurations().findByName(ScriptHandler.CLASSPATH_CONFIGURATION);
+            if (configuration != null) {
+                classpath.add(configuration);
+            }
+        }
+        return classpath;
+    }
+
+    /**
+     * @return the include glob patterns of the configurations to add to the trees, or null to include all.
+     */
+    @Input
+    @Optional
+    public String getIncludeConfigurations() {
+        return includeConfigurations;
+    }
+
+    /**
+     * @return the exclude glob patterns of the configurations to skip, or null to exclude nothing.
+     */
+    @Input
+    @Optional
+    public String getExcludeConfigurations() {
+        return excludeConfigurations;
+    }
+
+    /**
+     * @return true to write the dependency trees without indentation and newlines.
+     */
+    @Input
+    public boolean isCompactOutput() {
+        return compactOutput;
+    }
+
+    /**
+     * @return the format of the dependency tree files.
+     */
+    @Input
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * @return true to compress the dependency tree files with gzip.
+     */
+    @Input
+    public boolean isGzipOutput() {
+        return gzipOutput;
+    }
+
+    /**
+     * @return true to write a single document with the dependency trees of all related projects.
+     */
+    @Input
+    public boolean isConsolidatedOutput() {
+        return consolidatedOutput;
+    }
+
+    /**
+     * @return true to add a Merkle hash of the subgraph reachable from each node to the JSON trees.
+     */
+    @Input
+    public boolean isNodeHashes() {
+        return nodeHashes;
+    }
+
+    /**
+     * @return true to write the delta of each tree against the tree of the previous run next to the tree.
+     */
+    @Input
+    public boolean isDeltaOutput() {
+        return deltaOutput;
+    }
+
+    /**
+     * Not an input, as the cache doesn't change the trees.
+     *
+     * @return true to replay the resolution of unchanged configurations from the resolution cache.
+     */
+    @Internal
+    public boolean isResolutionCache() {
+        return resolutionCache;
+    }
+
+    /**
+     * @return the directory of the resolution cache.
+     */
+    @Internal
+    public File getResolutionCacheDir() {
+        if (resolutionCacheDir != null) {
+            return new File(resolutionCacheDir);
+        }
+        // The projects of different builds may have the same paths and module IDs, so each build has its own cache
+        MessageDigest digest = Utils.newSha256Digest();
+        update(digest, rootDir.getAbsolutePath());
+        return new File(gradleUserHomeDir, "caches/gradle-dep-tree/resolution/" + Utils.toHex(digest.digest()).substring(0, 16));
+    }
+
+    /**
+     * @return the size cap of the resolution cache in megabytes.
+     */
+    @Internal
+    public long getResolutionCacheMaxSize() {
+        return resolutionCacheMaxSize;
+    }
+
+    /**
+     * Not an input, as the stored configurations don't change the trees.
+     *
+     * @return true to store the resolution of each configuration next to the trees, and re-resolve only the
+     * configurations whose inputs changed since the previous run.
+     */
+    @Internal
+    public boolean isIncrementalConfigurations() {
+        return incrementalConfigurations;
+    }
+
+    /**
+     * @return the file or named pipe to stream the dependency trees to as NDJSON, or null to disable streaming.
+     */
+    @Internal
+    public String getStreamOutputFile() {
+        return streamOutputFile;
+    }
+
     /**
      * This method is used by Gradle, to decide whether this task is up-to-date or should be running.
      * If an output file is missing, the task will be executed.
@@ -100,33 +420,162 @@ public class GenerateDepTrees extends DefaultTask {
      * @return a list of the output files of the task.
      */
     @OutputFiles
-    public List<File> getOutputFiles() {
+    public FileCollection getOutputFiles() {
+        return outputFiles;
+    }
+
+    private List<File> listOutputFiles() {
         List<File> outputFiles = new ArrayList<>();
-        for (Project project : getRelatedProjects()) {
-            outputFiles.add(getProjectOutputFile(project));
+        if (consolidatedOutput) {
+            outputFiles.add(getConsolidatedOutputFile());
+            return outputFiles;
+        }
+        for (String fileName : getProjectFileNames(getRelatedProjects()).values()) {
+            outputFiles.add(getProjectOutputFile(fileName, outputFormat, gzipOutput));
+            if (deltaOutput) {
+                outputFiles.add(getProjectDeltaFile(fileName, gzipOutput));
+            }
         }
         return outputFiles;
     }
 
     @TaskAction
     void generateDepTrees() throws IOException {
+        if (consolidatedOutput && outputFormat != OutputFormat.JSON) {
+            throw new GradleException("'" + CONSOLIDATED_OUTPUT + "' supports only the JSON output format");
+        }
+        if (nodeHashes && (consolidatedOutput || outputFormat != OutputFormat.JSON)) {
+            throw new GradleException("'" + NODE_HASHES + "' supports only the per-project JSON output");
+        }
+        if (deltaOutput && consolidatedOutput) {
+            throw new GradleException("'" + DELTA_OUTPUT + "' supports only the per-project output");
+        }
+        if (consolidatedOutput && includeAllBuildFiles && !rootProjectTask) {
+            // The task of the root project covers all projects, and is the only one to write the consolidated output
+            getLogger().info("{}: the consolidated output is written by the root project", projectPath);
+            return;
+        }
+        if (deltaOutput && includeAllBuildFiles && !rootProjectTask) {
+            // Each snapshot must be compared and replaced once per run, so only the task of the root project, which covers
+            // all projects, writes the trees and their deltas
+            getLogger().info("{}: the delta output is written by the root project", projectPath);
+            return;
+        }
         createOutputDir();
-        for (Project project : getRelatedProjects()) {
-            GradleDepTreeResults results = createProjectDependencyTree(project);
-            // Write output to file
-            Utils.saveToFileAsJson(getProjectOutputFile(project), results);
+        // Shared by all projects, as most of the module IDs and configuration names repeat across projects
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        ConsolidatedDependencyGraph consolidatedGraph = consolidatedOutput ? new ConsolidatedDependencyGraph(moduleIds, configurationNames) : null;
+        // Like the summary, the stream is written by a single task, as the consumer stops reading at the end-of-stream record
+        boolean stream = streamOutputFile != null && isSummaryWriter();
+        ResolutionCache cache = resolutionCache ? new ResolutionCache(getResolutionCacheDir(), resolutionCacheMaxSize << 20) : null;
+        JsonOutputOptions jsonOptions = getJsonOutputOptions();
+        // Cleared for each project, and counts the reused components of the whole task
+        ComponentMemo memo = new ComponentMemo();
+        try (DepTreeStreamWriter streamWriter = stream ? new DepTreeStreamWriter(new File(streamOutputFile), nodeHashes) : null;
+             ParallelFileWriter fileWriter = new ParallelFileWriter(WRITER_THREADS)) {
+            for (ProjectSnapshot project : projectSnapshots.get()) {
+                // The mutable graph of the project is garbage once frozen, before the output is written
+                FrozenDependencyGraph graph = createProjectDependencyTree(project, moduleIds, configurationNames, memo, cache);
+                if (streamWriter != null) {
+                    streamWriter.write(project.getPath(), graph);
+                }
+                if (consolidatedGraph != null) {
+                    consolidatedGraph.add(project.getPath(), graph);
+                    continue;
+                }
+                // Write output to file in the background. The frozen graph is immutable and independent of the symbol
+                // tables, so it is safe to serialize while the next project is resolved.
+                String fileName = project.getFileName();
+                if (outputFormat == OutputFormat.BINARY) {
+                    fileWriter.submit(getProjectOutputFile(fileName, outputFormat, gzipOutput), file -> Utils.saveToFileAsBinary(file, graph, gzipOutput));
+                } else {
+                    fileWriter.submit(getProjectOutputFile(fileName, outputFormat, gzipOutput), file -> Utils.saveToFileAsJson(file, graph, jsonOptions));
+                }
+                // Remove the files of the other formats and encodings left by a previous run, so that the summary lists one
+                // file per project
+                for (OutputFormat format : OutputFormat.values()) {
+                    Files.deleteIfExists(getProjectOutputFile(fileName, format, !gzipOutput).toPath());
+                    if (format != outputFormat) {
+                        Files.deleteIfExists(getProjectOutputFile(fileName, format, gzipOutput).toPath());
+                    }
+                }
+                if (deltaOutput) {
+                    writeDelta(project, graph, fileWriter);
+                }
+            }
+            if (consolidatedGraph != null) {
+                fileWriter.submit(getConsolidatedOutputFile(), file -> Utils.saveToFileAsJson(file, consolidatedGraph, jsonOptions));
+            }
+            // The summary lists the output files, so they must all be in place before it is written
+            fileWriter.awaitCompletion();
+            if (streamWriter != null) {
+                streamWriter.complete();
+            }
+        }
+        getLogger().debug("Reused the children of {} components across configurations ({} computed)",
+                memo.getHits(), memo.getMisses());
+        if (cache != null) {
+            cache.evict();
+            getLogger().info("Resolution cache {}: {} hits, {} misses, {} evictions", cache.getDirectory(),
+                    cache.getHits(), cache.getMisses(), cache.getEvictions());
         }
-        if (getProject() == getProject().getRootProject() || !includeAllBuildFiles) {
+        if (isSummaryWriter()) {
             writeDepTreeSummary();
         }
     }
 
+    /**
+     * Write the delta between the snapshot of the previous run and the current tree of a project, and replace the
+     * snapshot with the current tree.
+     *
+     * @param project    - The snapshot of the Gradle project
+     * @param graph      - The current tree of the project
+     * @param fileWriter - The writer of the output files
+     * @throws IOException in case of any I/O error.
+     */
+    private void writeDelta(ProjectSnapshot project, FrozenDependencyGraph graph, ParallelFileWriter fileWriter) throws IOException {
+        String fileName = project.getFileName();
+        File snapshotFile = getProjectSnapshotFile(fileName);
+        FrozenDependencyGraph previous = readSnapshot(snapshotFile);
+        DependencyGraphDelta delta = new DependencyGraphDelta(previous, graph);
+        getLogger().info("{}: {} added, {} removed and {} changed nodes since the previous run", project.getPath(),
+                delta.getAddedNodes().size(), delta.getRemovedNodes().size(), delta.getChangedNodes().size());
+        fileWriter.submit(getProjectDeltaFile(fileName, gzipOutput), file -> Utils.saveToFileAsJson(file, delta, getJsonOutputOptions()));
+        Files.deleteIfExists(getProjectDeltaFile(fileName, !gzipOutput).toPath());
+        fileWriter.submit(snapshotFile, file -> Utils.saveToFileAsBinary(file, graph));
+    }
+
+    /**
+     * @param snapshotFile - The snapshot file of a project
+     * @return the tree of the previous run, or null if there is no readable snapshot.
+     */
+    private FrozenDependencyGraph readSnapshot(File snapshotFile) {
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            return BinaryDepTreeReader.readGraph(snapshotFile);
+        } catch (IOException e) {
+            // The delta is then computed against an empty tree, as on the first run
+            getLogger().warn("Ignoring the unreadable dependency tree snapshot '{}': {}", snapshotFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return true if this task writes the summary. When scanning all build files, only the root project task does.
+     */
+    private boolean isSummaryWriter() {
+        return rootProjectTask || !includeAllBuildFiles;
+    }
+
     private void writeDepTreeSummary() {
         String outputFilePath = System.getProperty(OUTPUT_FILE_PROPERTY);
         if (outputFilePath == null) {
             return;
         }
-        List<File> writtenFiles = listExistingOutputFiles();
+        List<File> writtenFiles = consolidatedOutput ? Collections.singletonList(getConsolidatedOutputFile()) : listExistingOutputFiles();
         if (writtenFiles.isEmpty()) {
             throw new GradleException("generateDepTrees produced no output files under " + pluginOutputDir);
         }
@@ -163,7 +612,7 @@ public class GenerateDepTrees extends DefaultTask {
 
     private List<File> listExistingOutputFiles() {
         List<File> writtenFiles = new ArrayList<>();
-        File outputDir = pluginOutputDir.toFile();
+        File outputDir = pluginOutputDir;
         if (!outputDir.isDirectory()) {
             return writtenFiles;
         }
@@ -177,9 +626,17 @@ public class GenerateDepTrees extends DefaultTask {
         if (files == null) {
             return writtenFiles;
         }
-        Arrays.sort(files, Comparator.comparing(File::getName));
+        // List the delta file of a project right after its tree. The base64 file names of the projects have no '.', so
+        // the files of a project share the part of their name before the first '.'.
+        Arrays.sort(files, Comparator.comparing((File file) -> file.getName().split("\\.", 2)[0])
+                .thenComparing(file -> file.getName().contains(DELTA_FILE_SUFFIX)));
         for (File file : files) {
-            if (!file.isFile()) {
+            // Skip the temporary files of writes that are still in progress or were interrupted
+            if (!file.isFile() || file.getName().endsWith(ParallelFileWriter.TEMP_FILE_SUFFIX)) {
+                continue;
+            }
+            // Skip the delta files left by a previous run in delta mode
+            if (!deltaOutput && file.getName().contains(DELTA_FILE_SUFFIX)) {
                 continue;
             }
             try {
@@ -234,48 +691,438 @@ public class GenerateDepTrees extends DefaultTask {
     }
 
     /**
-     * Get the output file of the project. The output files are list of files under ${buildDir}/gradle-dep-tree
+     * @return the related projects and the projects they depend on, transitively, sorted by path.
+     */
+    private List<Project> getFingerprintedProjects() {
+        return withProjectDependencies(getRelatedProjects());
+    }
+
+    /**
+     * @param projects - Gradle projects
+     * @return the projects and the projects they depend on, transitively, sorted by path.
+     */
+    private List<Project> withProjectDependencies(Collection<Project> projects) {
+        Map<String, Project> closure = new TreeMap<>();
+        Deque<Project> queue = new ArrayDeque<>(projects);
+        while (!queue.isEmpty()) {
+            Project project = queue.poll();
+            if (closure.putIfAbsent(project.getPath(), project) != null) {
+                continue;
+            }
+            for (Configuration configuration : project.getConfigurations()) {
+                for (Project target : getTargetProjects(configuration.getDependencies().withType(ProjectDependency.class))) {
+                    if (!closure.containsKey(target.getPath())) {
+                        queue.add(target);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(closure.values());
+    }
+
+    /**
+     * @param dependencies - Project dependencies
+     * @return the projects of the build that the dependencies refer to.
+     */
+    private List<Project> getTargetProjects(Collection<ProjectDependency> dependencies) {
+        if (projectsByModule == null) {
+            // Project dependencies are matched by group and name, as the target project of a dependency is not part
+            // of the public API of all the supported Gradle versions
+            projectsByModule = new HashMap<>();
+            for (Project project : getProject().getRootProject().getAllprojects()) {
+                projectsByModule.putIfAbsent(project.getGroup() + ":" + project.getName(), project);
+            }
+        }
+        List<Project> targets = new ArrayList<>();
+        for (ProjectDependency dependency : dependencies) {
+            Project target = projectsByModule.get(dependency.getGroup() + ":" + dependency.getName());
+            if (target != null) {
+                targets.add(target);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @param project - The Gradle project
+     * @return a SHA-256 digest of the module ID, the repositories and the declared inputs of all configurations of the
+     * project.
+     */
+    private String getProjectFingerprint(Project project) {
+        return projectFingerprints.computeIfAbsent(project.getPath(), path -> {
+            MessageDigest digest = Utils.newSha256Digest();
+            update(digest, path);
+            update(digest, getProjectModuleId(project));
+            update(digest, ConfigurationFingerprint.repositories(project.getRepositories()));
+            List<Configuration> configurations = new ArrayList<>(project.getConfigurations());
+            // Parent configurations are part of the fingerprint even if they are filtered out of the trees
+            configurations.sort(Comparator.comparing(Configuration::getName));
+            for (Configuration configuration : configurations) {
+                update(digest, ConfigurationFingerprint.declaredInputs(configuration));
+            }
+            return Utils.toHex(digest.digest());
+        });
+    }
+
+    /**
+     * The resolution of a configuration can be replayed from the resolution cache if the key describes everything it
+     * depends on. Changing versions may resolve differently with no change to the build, and the versions selected by
+     * resolution rules, or given to versionless dependencies by a BOM, are not part of the key.
+     *
+     * @param configuration      - A resolvable configuration
+     * @param hasResolutionRules - Whether the configuration may have resolution rules
+     * @return true if the resolution of the configuration can be cached.
+     */
+    private boolean isReplayable(Configuration configuration, boolean hasResolutionRules) {
+        boolean replayable = !hasResolutionRules &&
+                !ConfigurationFingerprint.hasChangingVersions(configuration) &&
+                !ConfigurationFingerprint.hasVersionlessDependencies(configuration);
+        if (!replayable) {
+            getLogger().debug("{} is always resolved", configuration);
+        }
+        return replayable;
+    }
+
+    private ResolutionRules getResolutionRules() {
+        if (resolutionRules == null) {
+            resolutionRules = new ResolutionRules(getLogger());
+        }
+        return resolutionRules;
+    }
+
+    /**
+     * The key of a configuration in the resolution cache. It covers the declared inputs of the configuration and of
+     * the configurations it extends, the repositories and the module ID of the project, and the fingerprints of the
+     * projects the configuration depends on, transitively.
+     *
+     * @param project       - The Gradle project
+     * @param configuration - A resolvable configuration of the project
+     * @return the key of the configuration.
+     */
+    private String getResolutionCacheKey(Project project, Configuration configuration) {
+        MessageDigest digest = Utils.newSha256Digest();
+        update(digest, RESOLUTION_CACHE_KEY_VERSION);
+        update(digest, project.getGradle().getGradleVersion());
+        update(digest, getProjectModuleId(project));
+        update(digest, ConfigurationFingerprint.repositories(project.getRepositories()));
+        List<Configuration> hierarchy = new ArrayList<>(configuration.getHierarchy());
+        hierarchy.sort(Comparator.comparing(Configuration::getName));
+        for (Configuration parent : hierarchy) {
+            update(digest, ConfigurationFingerprint.declaredInputs(parent));
+        }
+        List<Project> targets = getTargetProjects(configuration.getAllDependencies().withType(ProjectDependency.class));
+        for (Project target : withProjectDependencies(targets)) {
+            update(digest, getProjectFingerprint(target));
+        }
+        return Utils.toHex(digest.digest());
+    }
+
+    private static long parseResolutionCacheMaxSize(String maxSize) {
+        if (maxSize == null) {
+            return DEFAULT_RESOLUTION_CACHE_MAX_SIZE;
+        }
+        try {
+            long megabytes = Long.parseLong(maxSize.trim());
+            if (megabytes > 0 && megabytes < (Long.MAX_VALUE >> 20)) {
+                return megabytes;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below
+        }
+        throw new GradleException("'" + RESOLUTION_CACHE_MAX_SIZE + "' must be a positive number of megabytes: " + maxSize);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    /**
+     * Get the output file of a project. The output files are list of files under ${buildDir}/gradle-dep-tree
      * directory. The files are generated in the end of the "generateDepTrees" task, for each one of the related
-     * projects. To support special characters, the name of the output file is a base64 encoding of the project name.
+     * projects. Binary output files have the {@link OutputFormat#getExtension()} extension, and gzip-compressed output
+     * files the {@link Utils#GZIP_EXTENSION} extension after it.
      *
-     * @param project - The current Gradle project
+     * @param fileName - The file name of the project, see {@link #getProjectFileNames(List)}
+     * @param format   - The format of the output file
+     * @param gzip     - True to get the gzip-compressed output file
      * @return the output file of the project.
      */
-    private File getProjectOutputFile(Project project) {
-        return project.file(pluginOutputDir.resolve(Base64.getEncoder().encodeToString(project.getName().getBytes(StandardCharsets.UTF_8))));
+    private File getProjectOutputFile(String fileName, OutputFormat format, boolean gzip) {
+        fileName += format.getExtension();
+        return new File(pluginOutputDir, gzip ? fileName + Utils.GZIP_EXTENSION : fileName);
+    }
+
+    /**
+     * @param fileName - The file name of the project
+     * @param gzip     - True to get the gzip-compressed delta file
+     * @return the delta file of the project, next to its output file.
+     */
+    private File getProjectDeltaFile(String fileName, boolean gzip) {
+        fileName += DELTA_FILE_SUFFIX;
+        return new File(pluginOutputDir, gzip ? fileName + Utils.GZIP_EXTENSION : fileName);
+    }
+
+    /**
+     * @param fileName - The file name of the project
+     * @return the binary snapshot of the tree of the project, kept for the delta of the next run.
+     */
+    private File getProjectSnapshotFile(String fileName) {
+        return new File(new File(pluginOutputDir, SNAPSHOTS_DIR), fileName);
+    }
+
+    /**
+     * @param fileName - The file name of the project
+     * @return the directory of the stored resolution traces of the configurations of the project.
+     */
+    private File getProjectConfigurationsDir(String fileName) {
+        return new File(new File(pluginOutputDir, CONFIGURATIONS_DIR), fileName);
     }
 
     /**
-     * Create "${buildDir}/gradle-dep-tree" directory.
+     * To support special characters, the files of a project are named after a base64 encoding of the project name.
+     * Projects sharing their name with another project of the build are named after their path instead, which is unique
+     * in the build and can't be mistaken for a name, as project names can't contain ':'. The names are counted across
+     * the build, as the tasks of all projects write to the same directory.
+     *
+     * @param projects - The related projects
+     * @return the file names of the projects by project path.
+     */
+    private Map<String, String> getProjectFileNames(List<Project> projects) {
+        Set<Project> buildProjects = new HashSet<>(getProject().getRootProject().getAllprojects());
+        buildProjects.addAll(projects);
+        Map<String, Integer> nameCounts = new HashMap<>();
+        for (Project project : buildProjects) {
+            nameCounts.merge(project.getName(), 1, Integer::sum);
+        }
+        Map<String, String> fileNames = new LinkedHashMap<>();
+        for (Project project : projects) {
+            String name = nameCounts.get(project.getName()) > 1 ? project.getPath() : project.getName();
+            fileNames.put(project.getPath(), Base64.getEncoder().encodeToString(name.getBytes(StandardCharsets.UTF_8)));
+        }
+        return fileNames;
+    }
+
+    /**
+     * @param configurationName - The name of a configuration
+     * @return the file name of the stored resolution trace of the configuration, without its extension.
+     */
+    private static String getConfigurationFileName(String configurationName) {
+        return Base64.getUrlEncoder().encodeToString(configurationName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the options of the JSON output files.
+     */
+    private JsonOutputOptions getJsonOutputOptions() {
+        return JsonOutputOptions.DEFAULT.compact(compactOutput).gzip(gzipOutput).nodeHashes(nodeHashes);
+    }
+
+    /**
+     * @return the output file of all related projects in consolidated output mode.
+     */
+    private File getConsolidatedOutputFile() {
+        String fileName = gzipOutput ? CONSOLIDATED_OUTPUT_FILE_NAME + Utils.GZIP_EXTENSION : CONSOLIDATED_OUTPUT_FILE_NAME;
+        return new File(pluginOutputDir, fileName);
+    }
+
+    /**
+     * Create "${buildDir}/gradle-dep-tree" directory, and its snapshots directory in delta mode.
      *
      * @throws IOException in case of any I/O error.
      */
     private void createOutputDir() throws IOException {
-        Files.createDirectories(pluginOutputDir);
+        Files.createDirectories((deltaOutput ? new File(pluginOutputDir, SNAPSHOTS_DIR) : pluginOutputDir).toPath());
     }
 
     /**
-     * Generate the dependency tree for all project's configurations.
+     * Capture the related projects at configuration time.
      *
-     * @param project - The Gradle project
-     * @return a result object containing the root of the tree, the nodes and the relations between them.
+     * @return the snapshots of the related projects.
      */
-    private GradleDepTreeResults createProjectDependencyTree(Project project) {
-        String rootId = getProjectModuleId(project);
-        GradleDependencyNode root = new GradleDependencyNode();
-        Map<String, GradleDependencyNode> nodes = new HashMap<>();
-        nodes.put(rootId, root);
+    private List<ProjectSnapshot> snapshotRelatedProjects() {
+        // Root project of a build -> the module IDs of the projects of the build by path
+        Map<Project, Map<String, String>> buildModuleIds = new HashMap<>();
+        List<ProjectSnapshot> snapshots = new ArrayList<>();
+        List<Project> relatedProjects = getRelatedProjects();
+        Map<String, String> fileNames = getProjectFileNames(relatedProjects);
+        for (Project project : relatedProjects) {
+            Map<String, String> moduleIds = buildModuleIds.computeIfAbsent(project.getRootProject(), rootProject -> {
+                Map<String, String> projectModuleIds = new HashMap<>();
+                for (Project buildProject : rootProject.getAllprojects()) {
+                    projectModuleIds.put(buildProject.getPath(), getProjectModuleId(buildProject));
+                }
+                return projectModuleIds;
+            });
+            snapshots.add(snapshotProject(project, fileNames.get(project.getPath()), moduleIds));
+        }
+        return snapshots;
+    }
 
+    /**
+     * Capture the configurations of a project accepted by the configuration filter. Empty and equivalent
+     * configurations are detected here, and the resolution of the other resolvable configurations is deferred.
+     *
+     * @param project        - The Gradle project
+     * @param fileName       - The name of the output files of the project
+     * @param buildModuleIds - The module IDs of the projects of the build of the project by path
+     * @return the snapshot of the project.
+     */
+    private ProjectSnapshot snapshotProject(Project project, String fileName, Map<String, String> buildModuleIds) {
         // To prevent ConcurrentModificationException, we clone the configuration names before iterating over them.
         // This avoids issues caused by dynamic modifications by other Gradle plugins.
         ConfigurationContainer configsContainer = project.getConfigurations();
         Set<String> names = new HashSet<>(configsContainer.getNames());
+        // Filter by name before getting the configurations, so that skipped configurations are never resolved
+        int namesCount = names.size();
+        names.removeIf(name -> !configurationFilter.accept(name));
+        List<ConfigurationSnapshot> configurations = new ArrayList<>();
+        // Equivalence key -> the name of the configuration resolved for all equivalent configurations
+        Map<String, String> representatives = new HashMap<>();
+        boolean replayable = (resolutionCache || incrementalConfigurations) && !getResolutionRules().hasComponentMetadataRules(project);
         for (String name : names) {
-            // Pass `project` so synthesizeProjectNodeId can resolve sibling subprojects
-            // (keeps synthesized ids aligned with getProjectModuleId).
-            addConfiguration(project, root, configsContainer.getByName(name), nodes);
+            Configuration configuration = configsContainer.getByName(name);
+            if (!configuration.isCanBeResolved()) {
+                configurations.add(ConfigurationSnapshot.unresolved(name, getDeclaredDependencyIds(configuration)));
+                continue;
+            }
+            if (!hasDeclaredDependencies(configuration)) {
+                configurations.add(ConfigurationSnapshot.empty(name));
+                continue;
+            }
+            boolean hasResolutionRules = getResolutionRules().hasResolutionRules(configuration);
+            String equivalenceKey = hasResolutionRules ? null : ConfigurationFingerprint.equivalenceKey(configuration);
+            String representative = equivalenceKey == null ? null : representatives.putIfAbsent(equivalenceKey, name);
+            if (representative != null) {
+                configurations.add(ConfigurationSnapshot.equivalent(name, representative));
+                continue;
+            }
+            String cacheKey = replayable && isReplayable(configuration, hasResolutionRules) ? getResolutionCacheKey(project, configuration) : null;
+            configurations.add(ConfigurationSnapshot.resolved(name, getRootComponent(project, configuration), cacheKey));
+        }
+        return new ProjectSnapshot(project.getPath(), project.getName(), fileName, getProjectModuleId(project),
+                namesCount - names.size(), configurations, buildModuleIds);
+    }
+
+    /**
+     * @param project       - The Gradle project
+     * @param configuration - A resolvable configuration of the project
+     * @return the root of the resolution result of the configuration, resolved on first use. On Gradle 7.4+, the
+     * configuration cache resolves it when storing the task, and stores the result instead of the configuration.
+     */
+    private static Provider<ResolvedComponentResult> getRootComponent(Project project, Configuration configuration) {
+        ResolvableDependencies incoming = configuration.getIncoming();
+        if (LAZY_ROOT_COMPONENT) {
+            return incoming.getResolutionResult().getRootComponent();
+        }
+        return project.provider(() -> incoming.getResolutionResult().getRoot());
+    }
+
+    /**
+     * Generate the dependency tree for all project's configurations.
+     *
+     * @param project            - The snapshot of the Gradle project
+     * @param moduleIds          - The symbol table of the module IDs of the run
+     * @param configurationNames - The symbol table of the configuration names of the run
+     * @param memo               - The component memo of the run, cleared for the project
+     * @param cache              - The resolution cache, or null
+     * @return the frozen graph containing the root of the tree, the nodes and the relations between them.
+     */
+    private FrozenDependencyGraph createProjectDependencyTree(ProjectSnapshot project, SymbolTable moduleIds, SymbolTable configurationNames,
+                                                              ComponentMemo memo, ResolutionCache cache) {
+        DependencyGraphBuilder graph = new DependencyGraphBuilder(project.getModuleId(), moduleIds, configurationNames);
+        if (project.getFilteredOutConfigurations() > 0) {
+            getLogger().info("{}: skipped {} configurations excluded by the configuration filter",
+                    project.getPath(), project.getFilteredOutConfigurations());
+        }
+        // Most components are reached by several configurations - compute their children once per project
+        memo.clear();
+        // The configurations resolved by the previous run, and the names of the configurations stored by this run
+        ResolutionCache store = incrementalConfigurations ?
+                new ResolutionCache(getProjectConfigurationsDir(project.getFileName()), Long.MAX_VALUE) : null;
+        Set<String> storedConfigurations = new HashSet<>();
+        int emptyConfigurations = 0;
+        int equivalentConfigurations = 0;
+        // Resolved configuration name -> the names of the equivalent configurations folded into it
+        Map<String, List<String>> foldedConfigurations = new HashMap<>();
+        for (ConfigurationSnapshot configuration : project.getConfigurations()) {
+            String name = configuration.getName();
+            switch (configuration.getKind()) {
+                case EMPTY:
+                    // Nothing to resolve - record the configuration on the root only
+                    graph.addConfiguration(DependencyGraphBuilder.ROOT, configurationNames.intern(name));
+                    emptyConfigurations++;
+                    break;
+                case EQUIVALENT:
+                    foldedConfigurations.computeIfAbsent(configuration.getRepresentative(), key -> new ArrayList<>()).add(name);
+                    break;
+                case UNRESOLVED:
+                    addUnresolvedConfiguration(graph, name, configuration.getDependencyIds());
+                    break;
+                default:
+                    if (configuration.getCacheKey() != null) {
+                        addCachedConfiguration(project, graph, configuration, memo, cache, store);
+                        storedConfigurations.add(getConfigurationFileName(name));
+                    } else {
+                        // The module IDs of the build keep the synthesized project ids aligned with getProjectModuleId
+                        addResolvedConfiguration(project.getBuildModuleIds(), graph, name, configuration.getRootComponent(), memo, null);
+                    }
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : foldedConfigurations.entrySet()) {
+            getLogger().debug("{}: resolved {} once for the equivalent configurations {}",
+                    project.getPath(), entry.getKey(), entry.getValue());
+            int[] equivalents = entry.getValue().stream().mapToInt(configurationNames::intern).toArray();
+            graph.addEquivalentConfigurations(configurationNames.intern(entry.getKey()), equivalents);
+            equivalentConfigurations += equivalents.length;
+        }
+        getLogger().info("{}: skipped the resolution of {} empty and {} equivalent configurations",
+                project.getPath(), emptyConfigurations, equivalentConfigurations);
+        if (store != null) {
+            // Remove the configurations that are no longer stored, such as removed or filtered out configurations
+            store.retain(storedConfigurations);
+            getLogger().info("{}: reused the resolution of {} configurations from the previous run ({} changed)",
+                    project.getPath(), store.getHits(), store.getMisses());
+        }
+        return graph.freeze();
+    }
+
+    /**
+     * Add a resolvable configuration to the dependency graph of a project by replaying its stored or cached resolution,
+     * or resolve it and store and cache its resolution.
+     *
+     * @param project       - The snapshot of the Gradle project
+     * @param graph         - The dependency graph of the project
+     * @param configuration - A resolvable configuration of the project, with a cache key
+     * @param memo          - The component memo of the project
+     * @param cache         - The resolution cache, or null
+     * @param store         - The stored configurations of the project, or null
+     */
+    private void addCachedConfiguration(ProjectSnapshot project, DependencyGraphBuilder graph, ConfigurationSnapshot configuration, ComponentMemo memo,
+                                        ResolutionCache cache, ResolutionCache store) {
+        String key = configuration.getCacheKey();
+        String fileName = getConfigurationFileName(configuration.getName());
+        ResolutionTrace trace = store != null ? store.get(fileName, key) : null;
+        if (trace == null && cache != null) {
+            trace = cache.get(key);
+            if (trace != null && store != null) {
+                store.put(fileName, key, trace);
+            }
+        }
+        if (trace != null) {
+            getLogger().debug("{}: replayed the resolution of {}", project.getPath(), configuration.getName());
+            trace.replay(graph, graph.getConfigurationNames().intern(configuration.getName()));
+            return;
+        }
+        trace = new ResolutionTrace();
+        addResolvedConfiguration(project.getBuildModuleIds(), graph, configuration.getName(), configuration.getRootComponent(), memo, trace);
+        if (cache != null) {
+            cache.put(key, trace);
+        }
+        if (store != null) {
+            store.put(fileName, key, trace);
         }
-        return new GradleDepTreeResults(rootId, nodes);
     }
 
     private String getProjectModuleId(Project project) {
@@ -0,0 +1,142 @@
+package com.jfrog;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.*;
+
+public class BinaryDepTreeReaderTest {
+    private Path tempDirPath;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDirPath = Files.createTempDirectory("testBinaryDepTree");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDirPath.toFile());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("org:root:1.0", moduleIds, configurationNames);
+        int compile = configurationNames.intern("compileClasspath");
+        int runtime = configurationNames.intern("runtimeClasspath");
+        builder.addConfiguration(ROOT, compile);
+        builder.addConfiguration(ROOT, runtime);
+        int dep = builder.addResolvedChild(ROOT, moduleIds.intern("org:dep:1.0"), compile);
+        builder.addResolvedChild(dep, moduleIds.intern("org:\"quoted\" ünicode:2.0"), runtime);
+        builder.addUnresolvedChild(dep, moduleIds.intern("org:missing:404"), compile);
+        builder.addEdge(dep, ROOT);
+        FrozenDependencyGraph graph = builder.freeze();
+
+        File outputFile = tempDirPath.resolve("output").toFile();
+        Utils.saveToFileAsBinary(outputFile, graph);
+        GradleDepTreeResults actual = BinaryDepTreeReader.read(outputFile);
+
+        GradleDepTreeResults expected = graph.toResults();
+        assertEquals(actual.getRoot(), expected.getRoot());
+        assertResultsEqual(actual.getNodes(), expected.getNodes());
+        assertTrue(actual.getNodes().get("org:missing:404").isUnresolved());
+
+        // The frozen form is read back identically
+        FrozenDependencyGraph actualGraph = BinaryDepTreeReader.readGraph(outputFile);
+        assertEquals(actualGraph.getRoot(), graph.getRoot());
+        assertEquals(actualGraph.size(), graph.size());
+        assertEquals(actualGraph.getEdgeCount(), graph.getEdgeCount());
+        assertResultsEqual(actualGraph.toResults().getNodes(), expected.getNodes());
+    }
+
+    @Test
+    public void testRoundTripLargeGraph() throws IOException {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        for (int i = 0; i < 200; i++) {
+            configurationNames.intern("configuration-" + i);
+        }
+        int nodesCount = 5_000;
+        for (int i = 1; i < nodesCount; i++) {
+            builder.addResolvedChild(ROOT, moduleIds.intern("group:artifact-" + i + ":1.0.0"), i % 200);
+        }
+        for (int node = 1; node < nodesCount; node++) {
+            for (int i = 1; i < 10; i++) {
+                builder.addEdge(node, (node + i * 613) % nodesCount);
+            }
+        }
+        FrozenDependencyGraph graph = builder.freeze();
+
+        File binaryFile = tempDirPath.resolve("binary").toFile();
+        File jsonFile = tempDirPath.resolve("json").toFile();
+        Utils.saveToFileAsBinary(binaryFile, graph);
+        Utils.saveToFileAsJson(jsonFile, graph, JsonOutputOptions.DEFAULT.compact(true));
+        assertResultsEqual(BinaryDepTreeReader.read(binaryFile).getNodes(), graph.toResults().getNodes());
+        assertTrue(binaryFile.length() * 4 < jsonFile.length(),
+                "Binary: " + binaryFile.length() + " bytes, compact JSON: " + jsonFile.length() + " bytes");
+    }
+
+    @Test
+    public void testRoundTripGzip() throws IOException {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        builder.addResolvedChild(ROOT, moduleIds.intern("org:dep:1.0"), configurationNames.intern("compileClasspath"));
+        FrozenDependencyGraph graph = builder.freeze();
+
+        File outputFile = tempDirPath.resolve("output" + Utils.GZIP_EXTENSION).toFile();
+        Utils.saveToFileAsBinary(outputFile, graph, true);
+        assertResultsEqual(BinaryDepTreeReader.read(outputFile).getNodes(), graph.toResults().getNodes());
+    }
+
+    @Test
+    public void testVarint() throws IOException {
+        int[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int value : values) {
+            Utils.writeVarint(out, value);
+        }
+        assertEquals(bytes.size(), 1 + 1 + 1 + 2 + 2 + 3 + 5);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int value : values) {
+            assertEquals(BinaryDepTreeReader.readVarint(in), value);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Malformed varint")
+    public void testVarintOverflow() throws IOException {
+        // The fifth byte sets a bit beyond the 32 bits of an int, which would otherwise be read as 0
+        byte[] bytes = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10};
+        BinaryDepTreeReader.readVarint(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Not a binary dependency tree")
+    public void testReadJson() throws IOException {
+        BinaryDepTreeReader.read(new ByteArrayInputStream("{\"root\": \"a\"}".getBytes()));
+    }
+
+    private static void assertResultsEqual(Map<String, GradleDependencyNode> actual, Map<String, GradleDependencyNode> expected) {
+        assertEquals(actual.keySet(), expected.keySet());
+        for (String id : expected.keySet()) {
+            assertEquals(actual.get(id).getChildren(), expected.get(id).getChildren(), id);
+            assertEquals(actual.get(id).getConfigurations(), expected.get(id).getConfigurations(), id);
+            assertEquals(actual.get(id).isUnresolved(), expected.get(id).isUnresolved(), id);
+        }
+    }
+}
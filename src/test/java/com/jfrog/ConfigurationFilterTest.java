@@ -0,0 +1,41 @@
+package com.jfrog;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ConfigurationFilterTest {
+
+    @Test
+    public void testNoPatterns_acceptsAll() {
+        ConfigurationFilter filter = new ConfigurationFilter(null, "");
+        assertTrue(filter.accept("compileClasspath"));
+        assertTrue(filter.accept("debugAndroidTestRuntimeClasspath"));
+    }
+
+    @Test
+    public void testIncludes() {
+        ConfigurationFilter filter = new ConfigurationFilter("*Classpath, annotationProcessor", null);
+        assertTrue(filter.accept("compileClasspath"));
+        assertTrue(filter.accept("testRuntimeClasspath"));
+        assertTrue(filter.accept("annotationProcessor"));
+        assertFalse(filter.accept("implementation"));
+        assertFalse(filter.accept("kapt"));
+    }
+
+    @Test
+    public void testExcludesWinOverIncludes() {
+        ConfigurationFilter filter = new ConfigurationFilter("*Classpath", "test*,debug?ndroid*");
+        assertTrue(filter.accept("runtimeClasspath"));
+        assertFalse(filter.accept("testCompileClasspath"));
+        assertFalse(filter.accept("debugAndroidTestCompileClasspath"));
+    }
+
+    @Test
+    public void testRegexCharactersAreLiteral() {
+        ConfigurationFilter filter = new ConfigurationFilter("a.b+", null);
+        assertTrue(filter.accept("a.b+"));
+        assertFalse(filter.accept("axbb"));
+    }
+}
@@ -0,0 +1,212 @@
+package com.jfrog;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyConstraintSet;
+import org.gradle.api.artifacts.DependencySet;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.provider.Property;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.jfrog.ConfigurationFingerprint.declaredInputs;
+import static com.jfrog.ConfigurationFingerprint.equivalenceKey;
+import static com.jfrog.ConfigurationFingerprint.hasVersionlessDependencies;
+import static com.jfrog.ConfigurationFingerprint.repositories;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ConfigurationFingerprintTest {
+    private static final Attribute<String> USAGE = Attribute.of("org.gradle.usage", String.class);
+
+    @Test
+    public void testEquivalenceKey_sameHierarchyAndAttributes_areEqual() {
+        Configuration implementation = configuration("implementation", false, "java-api");
+        Configuration compileOnly = configuration("compileOnly", false, "java-api");
+        Configuration first = configuration("compileClasspath", false, "java-api", compileOnly, implementation);
+        Configuration second = configuration("customClasspath", false, "java-api", implementation, compileOnly);
+        assertNotNull(equivalenceKey(first));
+        assertEquals(equivalenceKey(first), equivalenceKey(second));
+    }
+
+    @Test
+    public void testEquivalenceKey_differentAttributes_areNotEqual() {
+        Configuration implementation = configuration("implementation", false, "java-api");
+        Configuration compileClasspath = configuration("compileClasspath", false, "java-api", implementation);
+        Configuration runtimeClasspath = configuration("runtimeClasspath", false, "java-runtime", implementation);
+        assertNotEquals(equivalenceKey(compileClasspath), equivalenceKey(runtimeClasspath));
+    }
+
+    @Test
+    public void testEquivalenceKey_differentHierarchy_areNotEqual() {
+        Configuration implementation = configuration("implementation", false, "java-api");
+        Configuration testImplementation = configuration("testImplementation", false, "java-api", implementation);
+        Configuration compileClasspath = configuration("compileClasspath", false, "java-api", implementation);
+        Configuration testCompileClasspath = configuration("testCompileClasspath", false, "java-api", testImplementation, implementation);
+        assertNotEquals(equivalenceKey(compileClasspath), equivalenceKey(testCompileClasspath));
+    }
+
+    @Test
+    public void testEquivalenceKey_ownDependencies_cannotBeFolded() {
+        Configuration implementation = configuration("implementation", false, "java-api");
+        Configuration configuration = configuration("compileClasspath", true, "java-api", implementation);
+        assertNull(equivalenceKey(configuration));
+    }
+
+    @Test
+    public void testEquivalenceKey_differentConflictResolution_areNotEqual() {
+        Configuration implementation = configuration("implementation", false, "java-api");
+        Configuration compileClasspath = configuration("compileClasspath", false, "java-api", implementation);
+        Configuration strictClasspath = configuration("strictClasspath", false, "java-api", implementation);
+        // failOnVersionConflict()
+        when(((ResolutionStrategyInternal) strictClasspath.getResolutionStrategy()).getConflictResolution()).thenReturn(ConflictResolution.strict);
+        assertNotEquals(equivalenceKey(compileClasspath), equivalenceKey(strictClasspath));
+    }
+
+    @Test
+    public void testEquivalenceKey_changingVersions_cannotBeFolded() {
+        Configuration implementation = configuration("implementation", false, "java-api");
+        Configuration configuration = configuration("compileClasspath", false, "java-api", implementation);
+        assertNotNull(equivalenceKey(configuration));
+        // The caching settings of the resolution strategy apply to the dynamic versions
+        DependencySet dependencies = mock(DependencySet.class);
+        doAnswer(invocation -> Collections.singletonList(dependency("junit", "junit", "4.+")).iterator()).when(dependencies).iterator();
+        when(configuration.getAllDependencies()).thenReturn(dependencies);
+        assertNull(equivalenceKey(configuration));
+    }
+
+    @Test
+    public void testDeclaredInputs_declarationOrder_isIgnored() {
+        Dependency junit = dependency("junit", "junit", "4.7");
+        Dependency commons = dependency("commons-io", "commons-io", "2.11.0");
+        Configuration first = configuration("implementation", true, "java-api");
+        stubDependencies(first, Arrays.asList(junit, commons));
+        Configuration second = configuration("implementation", true, "java-api");
+        stubDependencies(second, Arrays.asList(commons, junit));
+        assertEquals(declaredInputs(first), declaredInputs(second));
+    }
+
+    @Test
+    public void testDeclaredInputs_versionChange_isDetected() {
+        Configuration first = configuration("implementation", true, "java-api");
+        stubDependencies(first, Collections.singletonList(dependency("junit", "junit", "4.7")));
+        Configuration second = configuration("implementation", true, "java-api");
+        stubDependencies(second, Collections.singletonList(dependency("junit", "junit", "4.13.2")));
+        assertNotEquals(declaredInputs(first), declaredInputs(second));
+    }
+
+    @Test
+    public void testHasVersionlessDependencies() {
+        Configuration configuration = configuration("runtimeClasspath", true, "java-runtime");
+        DependencySet dependencies = mock(DependencySet.class);
+        when(configuration.getAllDependencies()).thenReturn(dependencies);
+        doAnswer(invocation -> Arrays.asList(dependency("junit", "junit", "4.7")).iterator()).when(dependencies).iterator();
+        assertFalse(hasVersionlessDependencies(configuration));
+        // A version given by a platform or a BOM
+        doAnswer(invocation -> Arrays.asList(dependency("junit", "junit", "4.7"), dependency("org.slf4j", "slf4j-api", "")).iterator())
+                .when(dependencies).iterator();
+        assertTrue(hasVersionlessDependencies(configuration));
+    }
+
+    @Test
+    public void testRepositories() {
+        ArtifactRepository central = repository("https://repo.maven.apache.org/maven2/");
+        ArtifactRepository mirror = repository("https://mirror.example.com/maven2/");
+        assertEquals(repositories(Arrays.asList(central, mirror)), repositories(Arrays.asList(central, mirror)));
+        // The first repository that has a module wins, so the order matters
+        assertNotEquals(repositories(Arrays.asList(central, mirror)), repositories(Arrays.asList(mirror, central)));
+        assertNotEquals(repositories(Collections.singletonList(central)), repositories(Collections.singletonList(mirror)));
+    }
+
+    private static Dependency dependency(String group, String name, String version) {
+        ExternalModuleDependency dependency = mock(ExternalModuleDependency.class);
+        when(dependency.getGroup()).thenReturn(group);
+        when(dependency.getName()).thenReturn(name);
+        when(dependency.getVersion()).thenReturn(version);
+        VersionConstraint versionConstraint = mock(VersionConstraint.class);
+        when(versionConstraint.getDisplayName()).thenReturn(version);
+        when(versionConstraint.getRequiredVersion()).thenReturn(version);
+        when(dependency.getVersionConstraint()).thenReturn(versionConstraint);
+        when(dependency.isTransitive()).thenReturn(true);
+        when(dependency.isChanging()).thenReturn(false);
+        when(dependency.getArtifacts()).thenReturn(Collections.emptySet());
+        when(dependency.getExcludeRules()).thenReturn(Collections.emptySet());
+        AttributeContainer attributes = mock(AttributeContainer.class);
+        doReturn(Collections.emptySet()).when(attributes).keySet();
+        when(dependency.getAttributes()).thenReturn(attributes);
+        return dependency;
+    }
+
+    private static void stubDependencies(Configuration configuration, List<Dependency> dependencies) {
+        doAnswer(invocation -> dependencies.iterator()).when(configuration.getDependencies()).iterator();
+        doAnswer(invocation -> Collections.emptyIterator()).when(configuration.getDependencyConstraints()).iterator();
+        when(configuration.getExtendsFrom()).thenReturn(Collections.emptySet());
+    }
+
+    private static ArtifactRepository repository(String url) {
+        MavenArtifactRepository repository = mock(MavenArtifactRepository.class);
+        when(repository.getUrl()).thenReturn(URI.create(url));
+        when(repository.getArtifactUrls()).thenReturn(Collections.emptySet());
+        return repository;
+    }
+
+    private static Configuration configuration(String name, boolean hasOwnDependencies, String usage, Configuration... parents) {
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getName()).thenReturn(name);
+        when(configuration.isTransitive()).thenReturn(true);
+
+        DependencySet dependencies = mock(DependencySet.class);
+        when(dependencies.isEmpty()).thenReturn(!hasOwnDependencies);
+        when(configuration.getDependencies()).thenReturn(dependencies);
+        DependencyConstraintSet constraints = mock(DependencyConstraintSet.class);
+        when(constraints.isEmpty()).thenReturn(true);
+        when(configuration.getDependencyConstraints()).thenReturn(constraints);
+        when(configuration.getExcludeRules()).thenReturn(Collections.emptySet());
+        DependencySet allDependencies = mock(DependencySet.class);
+        doAnswer(invocation -> Collections.emptyIterator()).when(allDependencies).iterator();
+        when(configuration.getAllDependencies()).thenReturn(allDependencies);
+        DependencyConstraintSet allConstraints = mock(DependencyConstraintSet.class);
+        doAnswer(invocation -> Collections.emptyIterator()).when(allConstraints).iterator();
+        when(configuration.getAllDependencyConstraints()).thenReturn(allConstraints);
+
+        Set<Configuration> hierarchy = new LinkedHashSet<>();
+        hierarchy.add(configuration);
+        hierarchy.addAll(Arrays.asList(parents));
+        when(configuration.getHierarchy()).thenReturn(hierarchy);
+
+        ResolutionStrategyInternal resolutionStrategy = mock(ResolutionStrategyInternal.class);
+        when(resolutionStrategy.getForcedModules()).thenReturn(Collections.emptySet());
+        when(resolutionStrategy.getConflictResolution()).thenReturn(ConflictResolution.latest);
+        Property<Boolean> useGlobalSubstitutionRules = mock(Property.class);
+        when(useGlobalSubstitutionRules.getOrNull()).thenReturn(true);
+        when(resolutionStrategy.getUseGlobalDependencySubstitutionRules()).thenReturn(useGlobalSubstitutionRules);
+        when(configuration.getResolutionStrategy()).thenReturn(resolutionStrategy);
+
+        AttributeContainer attributes = mock(AttributeContainer.class);
+        doReturn(Collections.singleton(USAGE)).when(attributes).keySet();
+        when(attributes.getAttribute(USAGE)).thenReturn(usage);
+        when(configuration.getAttributes()).thenReturn(attributes);
+        return configuration;
+    }
+}
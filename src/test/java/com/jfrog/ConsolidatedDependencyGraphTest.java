@@ -0,0 +1,110 @@
+package com.jfrog;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+import org.testng.collections.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.*;
+
+public class ConsolidatedDependencyGraphTest {
+    private static final Path RESOURCES_DIR = Paths.get("src", "test", "resources");
+
+    @Test
+    public void testAdd() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        ConsolidatedDependencyGraph consolidated = createConsolidatedGraph(moduleIds, configurationNames);
+
+        assertEquals(consolidated.getProjectRoots().keySet(), Sets.newHashSet(":app", ":lib"));
+        assertEquals(consolidated.getProjectRoots().get(":app"), "org:app:1.0");
+        int[] nodes = consolidated.getSortedNodes();
+        assertEquals(nodes.length, 5);
+        assertEquals(moduleIds.get(nodes[0]), "org:app:1.0");
+        assertEquals(moduleIds.get(nodes[4]), "org:transitive:1.0");
+
+        // The shared library appears once, with the configurations of both projects
+        int shared = moduleIds.lookup("org:shared:1.0");
+        Map<String, String[]> configurations = consolidated.getConfigurations(shared);
+        assertEquals(configurations.keySet(), Sets.newHashSet(":app", ":lib"));
+        assertEquals(configurations.get(":app"), new String[]{"compileClasspath", "runtimeClasspath"});
+        assertEquals(configurations.get(":lib"), new String[]{"runtimeClasspath"});
+        // Children are merged, and a node is resolved if it is resolved in any project
+        assertEquals(childIds(consolidated, moduleIds, shared), Sets.newHashSet("org:transitive:1.0", "org:missing:1.0"));
+        assertFalse(consolidated.isUnresolved(moduleIds.lookup("org:missing:1.0")));
+        assertTrue(consolidated.isUnresolved(moduleIds.lookup("org:transitive:1.0")));
+    }
+
+    @Test
+    public void testAddHighFanOutNode() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        int compile = configurationNames.intern("compileClasspath");
+        ConsolidatedDependencyGraph consolidated = new ConsolidatedDependencyGraph(moduleIds, configurationNames);
+        // The projects share half of the children of the node, which has too many children to scan once merged
+        for (int project = 0; project < 2; project++) {
+            DependencyGraphBuilder graph = new DependencyGraphBuilder("org:project-" + project + ":1.0", moduleIds, configurationNames);
+            int dep = graph.addResolvedChild(ROOT, moduleIds.intern("org:dep:1.0"), compile);
+            for (int i = project * 500; i < project * 500 + 1000; i++) {
+                graph.addResolvedChild(dep, moduleIds.intern("org:child-" + i + ":1.0"), compile);
+            }
+            consolidated.add(":project-" + project, graph.freeze());
+        }
+        int dep = moduleIds.lookup("org:dep:1.0");
+        assertEquals(consolidated.getChildren(dep).length, 1500);
+        assertEquals(childIds(consolidated, moduleIds, dep).size(), 1500);
+    }
+
+    @Test
+    public void testSaveToFileAsJson() throws IOException {
+        ConsolidatedDependencyGraph consolidated = createConsolidatedGraph(new SymbolTable(), new SymbolTable());
+        Path tempDir = Files.createTempDirectory("testConsolidatedGraph");
+        try {
+            File outputFile = tempDir.resolve("output.json").toFile();
+            Utils.saveToFileAsJson(outputFile, consolidated, JsonOutputOptions.DEFAULT);
+            String expectedOutput = FileUtils.readFileToString(RESOURCES_DIR.resolve("expectedConsolidatedDepTree.json").toFile(), StandardCharsets.UTF_8).trim();
+            String actualOutput = FileUtils.readFileToString(outputFile, StandardCharsets.UTF_8).trim();
+            assertEquals(actualOutput, expectedOutput.replace("\n", System.lineSeparator()));
+        } finally {
+            FileUtils.deleteDirectory(tempDir.toFile());
+        }
+    }
+
+    private static ConsolidatedDependencyGraph createConsolidatedGraph(SymbolTable moduleIds, SymbolTable configurationNames) {
+        int compile = configurationNames.intern("compileClasspath");
+        int runtime = configurationNames.intern("runtimeClasspath");
+
+        DependencyGraphBuilder app = new DependencyGraphBuilder("org:app:1.0", moduleIds, configurationNames);
+        app.addConfiguration(ROOT, compile);
+        int appShared = app.addResolvedChild(ROOT, moduleIds.intern("org:shared:1.0"), compile);
+        app.addConfiguration(appShared, runtime);
+        app.addUnresolvedChild(appShared, moduleIds.intern("org:transitive:1.0"), compile);
+        app.addUnresolvedChild(appShared, moduleIds.intern("org:missing:1.0"), compile);
+
+        DependencyGraphBuilder lib = new DependencyGraphBuilder("org:lib:1.0", moduleIds, configurationNames);
+        lib.addConfiguration(ROOT, runtime);
+        int libShared = lib.addResolvedChild(ROOT, moduleIds.intern("org:shared:1.0"), runtime);
+        lib.addResolvedChild(libShared, moduleIds.intern("org:missing:1.0"), runtime);
+
+        ConsolidatedDependencyGraph consolidated = new ConsolidatedDependencyGraph(moduleIds, configurationNames);
+        consolidated.add(":lib", lib.freeze());
+        consolidated.add(":app", app.freeze());
+        return consolidated;
+    }
+
+    private static HashSet<String> childIds(ConsolidatedDependencyGraph consolidated, SymbolTable moduleIds, int node) {
+        HashSet<String> ids = new HashSet<>();
+        Arrays.stream(consolidated.getChildren(node)).forEach(child -> ids.add(moduleIds.get(child)));
+        return ids;
+    }
+}
@@ -0,0 +1,75 @@
+package com.jfrog;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.assertEquals;
+
+public class DepTreeStreamWriterTest {
+    private Path tempDirPath;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDirPath = Files.createTempDirectory("testDepTreeStream");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDirPath.toFile());
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        File outputFile = tempDirPath.resolve("stream.ndjson").toFile();
+        // Existing content must be truncated
+        FileUtils.writeStringToFile(outputFile, "previous run\nprevious run\nprevious run\nprevious run\n", StandardCharsets.UTF_8);
+        try (DepTreeStreamWriter writer = new DepTreeStreamWriter(outputFile)) {
+            writer.write(":app", createGraph("org:app:1.0"));
+            // Each record is readable as soon as it's written
+            assertEquals(readLines(outputFile).size(), 1);
+            writer.write(":lib", createGraph("org:lib:1.0"));
+            writer.complete();
+        }
+
+        List<String> lines = readLines(outputFile);
+        assertEquals(lines.size(), 3);
+        assertEquals(lines.get(0), "{\"project\":\":app\",\"root\":\"org:app:1.0\",\"nodes\":{" +
+                "\"org:app:1.0\":{\"unresolved\":false,\"configurations\":[\"compileClasspath\"],\"children\":[\"org:dep:1.0\"]}," +
+                "\"org:dep:1.0\":{\"unresolved\":true,\"configurations\":[\"compileClasspath\"],\"children\":[]}}}");
+        assertEquals(lines.get(2), "{\"endOfStream\":true,\"complete\":true,\"projects\":2}");
+    }
+
+    @Test
+    public void testIncompleteStream() throws IOException {
+        File outputFile = tempDirPath.resolve("stream.ndjson").toFile();
+        try (DepTreeStreamWriter writer = new DepTreeStreamWriter(outputFile)) {
+            writer.write(":app", createGraph("org:app:1.0"));
+        }
+        List<String> lines = readLines(outputFile);
+        assertEquals(lines.size(), 2);
+        assertEquals(lines.get(1), "{\"endOfStream\":true,\"complete\":false,\"projects\":1}");
+    }
+
+    private static FrozenDependencyGraph createGraph(String rootId) {
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder(rootId, new SymbolTable(), configurationNames);
+        int compile = configurationNames.intern("compileClasspath");
+        builder.addConfiguration(ROOT, compile);
+        builder.addUnresolvedChild(ROOT, builder.getModuleIds().intern("org:dep:1.0"), compile);
+        return builder.freeze();
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.jfrog;
+
+import org.testng.annotations.Test;
+import org.testng.collections.Sets;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.*;
+
+public class DependencyGraphBuilderTest {
+
+    @Test
+    public void testAddChildren() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder graph = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int compile = configurationNames.intern("compileClasspath");
+        int runtime = configurationNames.intern("runtimeClasspath");
+
+        int dep = graph.addResolvedChild(ROOT, moduleIds.intern("dep"), compile);
+        graph.addUnresolvedChild(dep, moduleIds.intern("child-1"), compile);
+        // Adding the same child again only adds the configuration
+        graph.addUnresolvedChild(dep, moduleIds.intern("child-1"), runtime);
+        assertEquals(graph.size(), 3);
+        assertTrue(graph.isUnresolved(graph.getNode(moduleIds.intern("child-1"))));
+
+        // Once resolved, a child can't become unresolved again
+        graph.addResolvedChild(ROOT, moduleIds.intern("child-1"), runtime);
+        graph.addUnresolvedChild(dep, moduleIds.intern("child-1"), runtime);
+        assertFalse(graph.isUnresolved(graph.getNode(moduleIds.intern("child-1"))));
+
+        GradleDepTreeResults results = graph.toResults();
+        assertEquals(results.getRoot(), "root");
+        assertEquals(results.getNodes().keySet(), Sets.newHashSet("root", "dep", "child-1"));
+        assertEquals(results.getNodes().get("root").getChildren(), Sets.newHashSet("dep", "child-1"));
+        assertEquals(results.getNodes().get("dep").getChildren(), Sets.newHashSet("child-1"));
+        assertEquals(results.getNodes().get("dep").getConfigurations(), Sets.newHashSet("compileClasspath"));
+        assertEquals(results.getNodes().get("child-1").getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+        assertFalse(results.getNodes().get("child-1").isUnresolved());
+    }
+
+    @Test
+    public void testAddEdgesOfHighFanOutNode() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder graph = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int compile = configurationNames.intern("compileClasspath");
+        int dep = graph.addResolvedChild(ROOT, moduleIds.intern("dep"), compile);
+        // Add each child twice, before and after the node has too many children to scan
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 1000; i++) {
+                graph.addResolvedChild(dep, moduleIds.intern("child-" + i), compile);
+            }
+        }
+        graph.addEdge(ROOT, dep);
+        assertEquals(graph.size(), 1002);
+        FrozenDependencyGraph frozen = graph.freeze();
+        assertEquals(frozen.getChildCount(frozen.getNode("dep")), 1000);
+        assertEquals(frozen.getChildCount(frozen.getRootNode()), 1);
+        assertEquals(frozen.getEdgeCount(), 1001);
+    }
+
+    @Test
+    public void testSymbolTableSharedAcrossGraphs() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder first = new DependencyGraphBuilder("project-1", moduleIds, configurationNames);
+        DependencyGraphBuilder second = new DependencyGraphBuilder("project-2", moduleIds, configurationNames);
+        int shared = moduleIds.intern("shared");
+        int compile = configurationNames.intern("compileClasspath");
+        first.addResolvedChild(ROOT, shared, compile);
+        second.addResolvedChild(ROOT, shared, compile);
+
+        assertEquals(moduleIds.intern("shared"), shared);
+        assertEquals(moduleIds.get(shared), "shared");
+        assertEquals(moduleIds.size(), 3);
+        assertEquals(first.getNode(shared), 1);
+        assertEquals(second.getNode(shared), 1);
+        assertEquals(first.getNode(moduleIds.intern("project-2")), -1);
+    }
+
+    @Test
+    public void testAddEquivalentConfigurations() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder graph = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int compile = configurationNames.intern("compileClasspath");
+        int runtime = configurationNames.intern("runtimeClasspath");
+        graph.addConfiguration(ROOT, compile);
+        graph.addConfiguration(ROOT, runtime);
+        graph.addResolvedChild(ROOT, moduleIds.intern("compile-dep"), compile);
+        graph.addResolvedChild(ROOT, moduleIds.intern("runtime-dep"), runtime);
+
+        graph.addEquivalentConfigurations(compile, new int[]{configurationNames.intern("custom1"), configurationNames.intern("custom2")});
+
+        Map<String, GradleDependencyNode> nodes = graph.toResults().getNodes();
+        assertEquals(nodes.get("root").getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath", "custom1", "custom2"));
+        assertEquals(nodes.get("compile-dep").getConfigurations(), Sets.newHashSet("compileClasspath", "custom1", "custom2"));
+        assertEquals(nodes.get("runtime-dep").getConfigurations(), Sets.newHashSet("runtimeClasspath"));
+    }
+
+    @Test
+    public void testMergeInto() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder graph = new DependencyGraphBuilder("", moduleIds, configurationNames);
+        int runtime = configurationNames.intern("runtimeClasspath");
+        graph.addConfiguration(ROOT, runtime);
+        graph.addResolvedChild(ROOT, moduleIds.intern("dep"), runtime);
+
+        GradleDependencyNode root = new GradleDependencyNode("compileClasspath");
+        GradleDependencyNode dep = new GradleDependencyNode("compileClasspath");
+        dep.setUnresolved(true);
+        root.getChildren().add("dep");
+        Map<String, GradleDependencyNode> nodes = new HashMap<>();
+        nodes.put("root", root);
+        nodes.put("dep", dep);
+
+        graph.mergeInto(root, nodes);
+
+        assertEquals(nodes.size(), 2, "The root of the graph must be merged into the root node: " + nodes.keySet());
+        assertEquals(root.getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+        assertEquals(root.getChildren(), Sets.newHashSet("dep"));
+        assertEquals(dep.getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+        assertFalse(dep.isUnresolved());
+    }
+}
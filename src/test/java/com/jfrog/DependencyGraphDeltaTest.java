@@ -0,0 +1,113 @@
+package com.jfrog;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.*;
+
+public class DependencyGraphDeltaTest {
+    private Path tempDirPath;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDirPath = Files.createTempDirectory("testDependencyGraphDelta");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDirPath.toFile());
+    }
+
+    @Test
+    public void testDelta() {
+        FrozenDependencyGraph previous = createGraph(null, "root>a", "root>b", "a>c", "b>d");
+        FrozenDependencyGraph current = createGraph("c", "root>a", "root>b", "a>c", "b>e", "e>a");
+        DependencyGraphDelta delta = new DependencyGraphDelta(previous, current);
+
+        assertFalse(delta.isEmpty());
+        assertEquals(delta.getPreviousRoot(), "root");
+        assertEquals(delta.getAddedNodes(), Collections.singletonList("e"));
+        assertEquals(delta.getRemovedNodes(), Collections.singletonList("d"));
+        assertEquals(delta.getChangedNodes(), Collections.singletonList("c"));
+        Map<String, Object> addedEdges = new HashMap<>();
+        addedEdges.put("b", Collections.singletonList("e"));
+        addedEdges.put("e", Collections.singletonList("a"));
+        assertEquals(delta.getAddedEdges(), addedEdges);
+        assertEquals(delta.getRemovedEdges(), Collections.singletonMap("b", Collections.singletonList("d")));
+    }
+
+    @Test
+    public void testChangedConfigurations() {
+        FrozenDependencyGraph previous = createGraph(null, "root>a");
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int a = builder.addResolvedChild(ROOT, moduleIds.intern("a"), configurationNames.intern("compileClasspath"));
+        builder.addConfiguration(a, configurationNames.intern("runtimeClasspath"));
+        DependencyGraphDelta delta = new DependencyGraphDelta(previous, builder.freeze());
+        assertEquals(delta.getChangedNodes(), Collections.singletonList("a"));
+        assertTrue(delta.getAddedEdges().isEmpty());
+    }
+
+    @Test
+    public void testUnchanged() {
+        DependencyGraphDelta delta = new DependencyGraphDelta(createGraph(null, "root>a", "a>b"), createGraph(null, "root>a", "a>b"));
+        assertTrue(delta.isEmpty());
+    }
+
+    @Test
+    public void testNoPrevious() {
+        DependencyGraphDelta delta = new DependencyGraphDelta(null, createGraph(null, "root>a", "a>b"));
+        assertFalse(delta.isEmpty());
+        assertNull(delta.getPreviousRoot());
+        assertEquals(delta.getAddedNodes(), Arrays.asList("a", "b", "root"));
+        assertEquals(delta.getAddedEdges().get("root"), Collections.singletonList("a"));
+        assertTrue(delta.getRemovedNodes().isEmpty());
+    }
+
+    @Test
+    public void testSaveToFileAsJson() throws IOException {
+        FrozenDependencyGraph previous = createGraph(null, "root>a", "a>b");
+        FrozenDependencyGraph current = createGraph("b", "root>a", "root>c", "a>b");
+        File outputFile = tempDirPath.resolve("output.json").toFile();
+        Utils.saveToFileAsJson(outputFile, new DependencyGraphDelta(previous, current), JsonOutputOptions.DEFAULT.compact(true));
+        assertEquals(FileUtils.readFileToString(outputFile, StandardCharsets.UTF_8), "{\"root\":\"root\",\"previousRoot\":\"root\"," +
+                "\"addedNodes\":{\"c\":{\"unresolved\":false,\"configurations\":[\"compileClasspath\"]}}," +
+                "\"changedNodes\":{\"b\":{\"unresolved\":true,\"configurations\":[\"compileClasspath\"]}}," +
+                "\"removedNodes\":[],\"addedEdges\":{\"root\":[\"c\"]},\"removedEdges\":{}}");
+    }
+
+    /**
+     * @param unresolvedId the module ID of an unresolved node, or null
+     * @param edges        edges in the form of "parent>child", where each parent is already in the graph
+     */
+    private static FrozenDependencyGraph createGraph(String unresolvedId, String... edges) {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int configuration = configurationNames.intern("compileClasspath");
+        for (String edge : edges) {
+            String[] parts = edge.split(">");
+            int parent = builder.getNode(moduleIds.intern(parts[0]));
+            if (parts[1].equals(unresolvedId)) {
+                builder.addUnresolvedChild(parent, moduleIds.intern(parts[1]), configuration);
+            } else {
+                builder.addResolvedChild(parent, moduleIds.intern(parts[1]), configuration);
+            }
+        }
+        return builder.freeze();
+    }
+}
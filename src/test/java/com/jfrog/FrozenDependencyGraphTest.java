@@ -0,0 +1,254 @@
+package com.jfrog;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.testng.collections.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.*;
+
+public class FrozenDependencyGraphTest {
+    private static final Path RESOURCES_DIR = Paths.get("src", "test", "resources");
+
+    @Test
+    public void testFreeze() {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int runtime = configurationNames.intern("runtimeClasspath");
+        int compile = configurationNames.intern("compileClasspath");
+        configurationNames.intern("unused");
+        int c = builder.addResolvedChild(ROOT, moduleIds.intern("c"), runtime);
+        int a = builder.addResolvedChild(ROOT, moduleIds.intern("a"), compile);
+        builder.addConfiguration(a, runtime);
+        builder.addUnresolvedChild(c, moduleIds.intern("b"), runtime);
+        builder.addEdge(a, c);
+
+        FrozenDependencyGraph graph = builder.freeze();
+        assertEquals(graph.size(), 4);
+        assertEquals(graph.getEdgeCount(), 4);
+        assertEquals(graph.getRoot(), "root");
+        // The nodes, children and configurations are sorted
+        assertEquals(graph.getId(0), "a");
+        assertEquals(graph.getId(graph.getRootNode()), "root");
+        int root = graph.getRootNode();
+        assertEquals(graph.getChildCount(root), 2);
+        assertEquals(graph.getId(graph.getChild(root, 0)), "a");
+        assertEquals(graph.getId(graph.getChild(root, 1)), "c");
+        int frozenA = graph.getNode("a");
+        assertEquals(graph.getConfigurationCount(frozenA), 2);
+        assertEquals(graph.getConfiguration(frozenA, 0), "compileClasspath");
+        assertEquals(graph.getConfiguration(frozenA, 1), "runtimeClasspath");
+        assertTrue(graph.isUnresolved(graph.getNode("b")));
+        assertFalse(graph.isUnresolved(graph.getNode("c")));
+        assertEquals(graph.getNode("unknown"), -1);
+
+        // The frozen graph converts to the same results as the builder
+        Map<String, GradleDependencyNode> expected = builder.toResults().getNodes();
+        Map<String, GradleDependencyNode> actual = graph.toResults().getNodes();
+        assertEquals(actual.keySet(), expected.keySet());
+        for (String id : expected.keySet()) {
+            assertEquals(actual.get(id).getChildren(), expected.get(id).getChildren(), id);
+            assertEquals(actual.get(id).getConfigurations(), expected.get(id).getConfigurations(), id);
+            assertEquals(actual.get(id).isUnresolved(), expected.get(id).isUnresolved(), id);
+        }
+    }
+
+    @Test
+    public void testSaveToFileAsJson() throws IOException {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("dep", moduleIds, configurationNames);
+        int configuration1 = configurationNames.intern("configuration-1");
+        builder.addConfiguration(ROOT, configuration1);
+        builder.addUnresolvedChild(ROOT, moduleIds.intern("child-1"), configuration1);
+        builder.addUnresolvedChild(ROOT, moduleIds.intern("child-1"), configurationNames.intern("configuration-2"));
+        int child2 = builder.addResolvedChild(ROOT, moduleIds.intern("child-2"), configuration1);
+        builder.addEdge(child2, ROOT);
+
+        Path tempDir = Files.createTempDirectory("testFrozenGraph");
+        try {
+            File outputFile = tempDir.resolve("output.txt").toFile();
+            Utils.saveToFileAsJson(outputFile, builder.freeze());
+            String expectedOutput = FileUtils.readFileToString(RESOURCES_DIR.resolve("expectedDepTree.json").toFile(), StandardCharsets.UTF_8).trim();
+            String actualOutput = FileUtils.readFileToString(outputFile, StandardCharsets.UTF_8).trim();
+            assertEquals(actualOutput, expectedOutput);
+        } finally {
+            FileUtils.deleteDirectory(tempDir.toFile());
+        }
+    }
+
+    @Test
+    public void testByteStableOutput() throws IOException {
+        // The same graph, populated in different orders with different symbol tables
+        SymbolTable firstModuleIds = new SymbolTable();
+        SymbolTable firstConfigurationNames = new SymbolTable();
+        DependencyGraphBuilder first = new DependencyGraphBuilder("root", firstModuleIds, firstConfigurationNames);
+        int firstCompile = firstConfigurationNames.intern("compileClasspath");
+        int firstRuntime = firstConfigurationNames.intern("runtimeClasspath");
+        int firstA = first.addResolvedChild(ROOT, firstModuleIds.intern("a"), firstCompile);
+        first.addResolvedChild(ROOT, firstModuleIds.intern("b"), firstRuntime);
+        first.addResolvedChild(firstA, firstModuleIds.intern("c"), firstCompile);
+        first.addResolvedChild(firstA, firstModuleIds.intern("b"), firstRuntime);
+
+        SymbolTable secondModuleIds = new SymbolTable();
+        SymbolTable secondConfigurationNames = new SymbolTable();
+        secondModuleIds.intern("c");
+        DependencyGraphBuilder second = new DependencyGraphBuilder("root", secondModuleIds, secondConfigurationNames);
+        int secondRuntime = secondConfigurationNames.intern("runtimeClasspath");
+        int secondCompile = secondConfigurationNames.intern("compileClasspath");
+        int secondB = second.addResolvedChild(ROOT, secondModuleIds.intern("b"), secondRuntime);
+        int secondA = second.addResolvedChild(ROOT, secondModuleIds.intern("a"), secondCompile);
+        second.addEdge(secondA, secondB);
+        second.addResolvedChild(secondA, secondModuleIds.intern("c"), secondCompile);
+
+        Path tempDir = Files.createTempDirectory("testFrozenGraph");
+        try {
+            File firstFile = tempDir.resolve("first").toFile();
+            File secondFile = tempDir.resolve("second").toFile();
+            File resultsFile = tempDir.resolve("results").toFile();
+            Utils.saveToFileAsJson(firstFile, first.freeze());
+            Utils.saveToFileAsJson(secondFile, second.freeze());
+            Utils.saveToFileAsJson(resultsFile, second.toResults());
+            byte[] expected = Files.readAllBytes(firstFile.toPath());
+            assertEquals(Files.readAllBytes(secondFile.toPath()), expected);
+            assertEquals(Files.readAllBytes(resultsFile.toPath()), expected);
+        } finally {
+            FileUtils.deleteDirectory(tempDir.toFile());
+        }
+    }
+
+    @Test
+    public void testFreezeLargeGraph() {
+        int nodesCount = 10_000;
+        FrozenDependencyGraph graph = createLargeGraph(nodesCount).freeze();
+        assertEquals(graph.size(), nodesCount);
+        assertEquals(graph.getEdgeCount(), 9_999 + 9_999 * 9 + 1);
+        assertEquals(graph.getConfigurationNamesCount(), 2);
+        // The offsets of consecutive nodes partition the edges and the configurations, with no gap or overlap
+        int edges = 0;
+        int nodeConfigurations = 0;
+        for (int node = 0; node < graph.size(); node++) {
+            int childCount = graph.getChildCount(node);
+            assertEquals(childCount, node == graph.getRootNode() ? nodesCount : 9, graph.getId(node));
+            for (int i = 1; i < childCount; i++) {
+                assertTrue(graph.getId(graph.getChild(node, i - 1)).compareTo(graph.getId(graph.getChild(node, i))) < 0);
+            }
+            edges += childCount;
+            nodeConfigurations += graph.getConfigurationCount(node);
+        }
+        assertEquals(edges, graph.getEdgeCount());
+        // The root has no configuration, each other node has one
+        assertEquals(nodeConfigurations, nodesCount - 1);
+
+        GradleDepTreeResults results = graph.toResults();
+        assertEquals(results.getNodes().size(), nodesCount);
+    }
+
+    @Test
+    public void testFootprint() throws IllegalAccessException {
+        DependencyGraphBuilder builder = createLargeGraph(10_000);
+        FrozenDependencyGraph graph = builder.freeze();
+        Footprint builderFootprint = new Footprint(builder);
+        Footprint frozenFootprint = new Footprint(graph);
+        Reporter.log(String.format("%,d edges: builder %,d objects and %,d bytes, frozen graph %,d objects and %,d bytes",
+                graph.getEdgeCount(), builderFootprint.objects, builderFootprint.bytes, frozenFootprint.objects,
+                frozenFootprint.bytes), true);
+
+        // The builder holds arrays and bit sets per node, the frozen graph a fixed number of arrays
+        assertTrue(builderFootprint.objects > 2 * graph.size());
+        assertTrue(frozenFootprint.objects < 16);
+        assertTrue(frozenFootprint.bytes * 3 < builderFootprint.bytes);
+        // Each child in the children sets of GradleDepTreeResults takes a HashMap node of at least 32 bytes
+        assertTrue(frozenFootprint.bytes < graph.getEdgeCount() * 32L);
+    }
+
+    /**
+     * A synthetic graph with about 10 edges per node.
+     *
+     * @param nodesCount - The number of nodes
+     * @return the builder of the graph.
+     */
+    private static DependencyGraphBuilder createLargeGraph(int nodesCount) {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int[] configurations = {configurationNames.intern("compileClasspath"), configurationNames.intern("runtimeClasspath")};
+        for (int i = 1; i < nodesCount; i++) {
+            builder.addResolvedChild(ROOT, moduleIds.intern("group:artifact-" + i + ":1.0.0"), configurations[i % 2]);
+        }
+        for (int node = 1; node < nodesCount; node++) {
+            for (int i = 1; i < 10; i++) {
+                builder.addEdge(node, (node + i * 7) % nodesCount);
+            }
+        }
+        builder.addEdge(ROOT, ROOT);
+        return builder;
+    }
+
+    /**
+     * A JOL-style estimate of the objects and bytes held by the arrays and bit sets of a graph, with 16 bytes of header
+     * per array, compressed references and 8-byte alignment. The module IDs and configuration names are shared with the
+     * symbol tables, so only the references to them are counted.
+     */
+    private static class Footprint {
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long objects;
+        private long bytes;
+
+        private Footprint(Object graph) throws IllegalAccessException {
+            add(graph);
+        }
+
+        private void add(Object value) throws IllegalAccessException {
+            if (value == null || value instanceof String || value instanceof SymbolTable || !visited.add(value)) {
+                return;
+            }
+            objects++;
+            if (value instanceof int[]) {
+                bytes += align(16 + 4L * ((int[]) value).length);
+            } else if (value instanceof long[]) {
+                bytes += align(16 + 8L * ((long[]) value).length);
+            } else if (value instanceof Object[]) {
+                bytes += align(16 + 4L * ((Object[]) value).length);
+                for (Object element : (Object[]) value) {
+                    add(element);
+                }
+            } else if (value instanceof BitSet) {
+                // The bit set and its words array
+                objects++;
+                bytes += 24 + align(16 + ((BitSet) value).size() / 8);
+            } else {
+                bytes += 16;
+                if (value.getClass().getPackage() != Footprint.class.getPackage()) {
+                    return;
+                }
+                for (Field field : value.getClass().getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                        field.setAccessible(true);
+                        add(field.get(value));
+                    }
+                }
+            }
+        }
+
+        private static long align(long size) {
+            return (size + 7) & ~7;
+        }
+    }
+}
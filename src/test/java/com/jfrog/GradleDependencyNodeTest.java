@@ -0,0 +1,70 @@
+package com.jfrog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+import org.testng.collections.Sets;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import static org.testng.Assert.*;
+
+public class GradleDependencyNodeTest {
+
+    @Test
+    public void testConfigurationsView() {
+        GradleDependencyNode node = new GradleDependencyNode(new SymbolTable());
+        assertTrue(node.getConfigurations().add("compileClasspath"));
+        assertTrue(node.getConfigurations().add("runtimeClasspath"));
+        assertFalse(node.getConfigurations().add("compileClasspath"));
+        assertEquals(node.getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+        assertTrue(node.getConfigurations().contains("runtimeClasspath"));
+        assertFalse(node.getConfigurations().contains("testCompileClasspath"));
+
+        assertTrue(node.getConfigurations().remove("compileClasspath"));
+        assertFalse(node.getConfigurations().remove("testCompileClasspath"));
+        assertEquals(node.getConfigurations(), Sets.newHashSet("runtimeClasspath"));
+
+        Iterator<String> iterator = node.getConfigurations().iterator();
+        assertEquals(iterator.next(), "runtimeClasspath");
+        iterator.remove();
+        assertTrue(node.getConfigurations().isEmpty());
+    }
+
+    @Test
+    public void testAddConfigurations() {
+        SymbolTable configurationNames = new SymbolTable();
+        GradleDependencyNode node = new GradleDependencyNode(configurationNames);
+        node.getConfigurations().add("compileClasspath");
+
+        // Nodes sharing the configuration names table
+        GradleDependencyNode sharedNode = new GradleDependencyNode(configurationNames);
+        sharedNode.getConfigurations().add("runtimeClasspath");
+        node.addConfigurations(sharedNode);
+        assertEquals(node.getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+
+        // Nodes with different configuration names tables
+        GradleDependencyNode otherNode = new GradleDependencyNode("testRuntimeClasspath");
+        node.addConfigurations(otherNode);
+        assertEquals(node.getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath", "testRuntimeClasspath"));
+        assertEquals(otherNode.getConfigurations(), Sets.newHashSet("testRuntimeClasspath"));
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws IOException {
+        GradleDependencyNode node = new GradleDependencyNode(new SymbolTable());
+        node.getConfigurations().add("compileClasspath");
+        node.getConfigurations().add("runtimeClasspath");
+        node.getChildren().add("junit:junit:4.7");
+        node.setUnresolved(true);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        GradleDependencyNode deserialized = objectMapper.readValue(objectMapper.writeValueAsString(node), GradleDependencyNode.class);
+        assertEquals(deserialized.getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+        assertEquals(deserialized.getChildren(), Sets.newHashSet("junit:junit:4.7"));
+        assertTrue(deserialized.isUnresolved());
+        // Without a shared configuration names table, the configurations are kept in a plain set
+        assertEquals(deserialized.getConfigurations().getClass(), HashSet.class);
+    }
+}
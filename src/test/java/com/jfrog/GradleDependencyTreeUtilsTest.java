@@ -3,6 +3,7 @@ package com.jfrog;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyConstraintSet;
 import org.gradle.api.artifacts.DependencySet;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ResolvableDependencies;
@@ -16,6 +17,7 @@ import org.gradle.api.artifacts.result.ResolvedDependencyResult;
 import org.testng.annotations.Test;
 import org.testng.collections.Sets;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -24,10 +26,13 @@ import java.util.Set;
 
 import static com.jfrog.GradleDependencyTreeUtils.addChild;
 import static com.jfrog.GradleDependencyTreeUtils.addConfiguration;
+import static com.jfrog.GradleDependencyTreeUtils.hasDeclaredDependencies;
 import static com.jfrog.GradleDependencyTreeUtils.resolveNodeId;
 import static com.jfrog.GradleDependencyTreeUtils.synthesizeProjectNodeId;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.*;
 
@@ -416,9 +421,220 @@ public class GradleDependencyTreeUtilsTest {
         assertTrue(nodes.isEmpty());
     }
 
-    private static <T extends DependencyResult> Set<DependencyResult> setOf(T item) {
-        Set<DependencyResult> set = new LinkedHashSet<>();
-        set.add(item);
-        return set;
+    @Test
+    public void testHasDeclaredDependencies() {
+        DependencySet emptyDependencies = mock(DependencySet.class);
+        when(emptyDependencies.isEmpty()).thenReturn(true);
+        DependencySet dependencies = mock(DependencySet.class);
+        when(dependencies.isEmpty()).thenReturn(false);
+        DependencyConstraintSet emptyConstraints = mock(DependencyConstraintSet.class);
+        when(emptyConstraints.isEmpty()).thenReturn(true);
+        DependencyConstraintSet constraints = mock(DependencyConstraintSet.class);
+        when(constraints.isEmpty()).thenReturn(false);
+
+        assertFalse(hasDeclaredDependencies(configurationWith(emptyDependencies, emptyConstraints)));
+        assertTrue(hasDeclaredDependencies(configurationWith(dependencies, emptyConstraints)));
+        // A platform or a BOM may only declare constraints
+        Configuration withConstraints = configurationWith(emptyDependencies, constraints);
+        assertTrue(hasDeclaredDependencies(withConstraints));
+    }
+
+    private static Configuration configurationWith(DependencySet dependencies, DependencyConstraintSet constraints) {
+        // Read through the incoming dependencies, which run the dependency actions like resolution
+        ResolvableDependencies incoming = mock(ResolvableDependencies.class);
+        when(incoming.getDependencies()).thenReturn(dependencies);
+        when(incoming.getDependencyConstraints()).thenReturn(constraints);
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getIncoming()).thenReturn(incoming);
+        return configuration;
+    }
+
+    /**
+     * Cycle {@code a → b → a} plus a diamond {@code root → a → d, root → c → d}. The back edge
+     * {@code b → a} must be dropped, while {@code d} must still be reachable through both paths —
+     * the path guard only covers ancestors, never siblings.
+     */
+    @Test
+    public void testAddConfiguration_cycleAndDiamond_cutsOnlyBackEdges() {
+        ResolvedComponentResult a = component("g:a:1");
+        ResolvedComponentResult b = component("g:b:1");
+        ResolvedComponentResult c = component("g:c:1");
+        ResolvedComponentResult d = component("g:d:1");
+        doReturn(setOf(dependencyOn(b), dependencyOn(d))).when(a).getDependencies();
+        doReturn(setOf(dependencyOn(a))).when(b).getDependencies();
+        doReturn(setOf(dependencyOn(d))).when(c).getDependencies();
+        ResolvedComponentResult rootComponent = mock(ResolvedComponentResult.class);
+        doReturn(setOf(dependencyOn(a), dependencyOn(c))).when(rootComponent).getDependencies();
+
+        GradleDependencyNode root = new GradleDependencyNode();
+        Map<String, GradleDependencyNode> nodes = new HashMap<>();
+        nodes.put("root", root);
+
+        addConfiguration(null, root, resolvableConfiguration("runtimeClasspath", rootComponent), nodes);
+
+        assertEquals(root.getChildren(), Sets.newHashSet("g:a:1", "g:c:1"));
+        assertEquals(nodes.get("g:a:1").getChildren(), Sets.newHashSet("g:b:1", "g:d:1"));
+        assertEquals(nodes.get("g:c:1").getChildren(), Sets.newHashSet("g:d:1"));
+        assertTrue(nodes.get("g:b:1").getChildren().isEmpty(), "The back edge b → a must be cut");
+        assertEquals(nodes.get("g:d:1").getConfigurations(), Sets.newHashSet("runtimeClasspath"));
+    }
+
+    /**
+     * A component shared by more parents than the former MAX_DEP_POPULATIONS_IN_CONFIG cap must be linked from all
+     * of them, and its own dependencies must be walked exactly once.
+     */
+    @Test
+    public void testAddConfiguration_sharedComponent_visitedOnceAndLinkedFromAllParents() {
+        ResolvedComponentResult leaf = component("g:leaf:1");
+        ResolvedComponentResult shared = component("g:shared:1");
+        doReturn(setOf(dependencyOn(leaf))).when(shared).getDependencies();
+        Set<DependencyResult> parents = new LinkedHashSet<>();
+        for (int i = 0; i < 12; i++) {
+            ResolvedComponentResult parent = component("g:parent-" + i + ":1");
+            doReturn(setOf(dependencyOn(shared))).when(parent).getDependencies();
+            parents.add(dependencyOn(parent));
+        }
+        ResolvedComponentResult rootComponent = mock(ResolvedComponentResult.class);
+        doReturn(parents).when(rootComponent).getDependencies();
+
+        GradleDependencyNode root = new GradleDependencyNode();
+        Map<String, GradleDependencyNode> nodes = new HashMap<>();
+        nodes.put("root", root);
+
+        addConfiguration(null, root, resolvableConfiguration("runtimeClasspath", rootComponent), nodes);
+
+        assertEquals(root.getChildren().size(), 12);
+        for (int i = 0; i < 12; i++) {
+            assertEquals(nodes.get("g:parent-" + i + ":1").getChildren(), Sets.newHashSet("g:shared:1"));
+        }
+        assertEquals(nodes.get("g:shared:1").getChildren(), Sets.newHashSet("g:leaf:1"));
+        verify(shared, times(1)).getDependencies();
+    }
+
+    /**
+     * Configurations resolving the same components reuse their memoized children, while a component with different
+     * edges in another configuration (e.g. another version selected by conflict resolution) is recomputed.
+     */
+    @Test
+    public void testAddConfiguration_componentMemo_reusesChildrenAcrossConfigurations() {
+        ComponentIdentifier xId = mock(ModuleComponentIdentifier.class);
+        ComponentIdentifier yId = mock(ModuleComponentIdentifier.class);
+        ComponentIdentifier zId = mock(ModuleComponentIdentifier.class);
+        DependencyGraphBuilder graph = new DependencyGraphBuilder("root", new SymbolTable(), new SymbolTable());
+        ComponentMemo memo = new ComponentMemo();
+
+        // Each configuration has its own resolution result, but the component identities are shared
+        for (String configurationName : new String[]{"compileClasspath", "runtimeClasspath"}) {
+            ResolvedComponentResult x = component("g:x:1", xId);
+            doReturn(setOf(dependencyOn(component("g:y:1", yId)))).when(x).getDependencies();
+            ResolvedComponentResult rootComponent = mock(ResolvedComponentResult.class);
+            doReturn(setOf(dependencyOn(x))).when(rootComponent).getDependencies();
+            addConfiguration(null, graph, resolvableConfiguration(configurationName, rootComponent), memo);
+        }
+        Map<String, GradleDependencyNode> nodes = graph.toResults().getNodes();
+        assertEquals(memo.getHits(), 2);
+        assertEquals(nodes.get("g:x:1").getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+        assertEquals(nodes.get("g:y:1").getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+
+        ResolvedComponentResult x = component("g:x:1", xId);
+        doReturn(setOf(dependencyOn(component("g:z:1", zId)))).when(x).getDependencies();
+        ResolvedComponentResult rootComponent = mock(ResolvedComponentResult.class);
+        doReturn(setOf(dependencyOn(x))).when(rootComponent).getDependencies();
+        addConfiguration(null, graph, resolvableConfiguration("testRuntimeClasspath", rootComponent), memo);
+
+        nodes = graph.toResults().getNodes();
+        assertEquals(memo.getHits(), 2);
+        assertEquals(nodes.get("g:x:1").getChildren(), Sets.newHashSet("g:y:1", "g:z:1"));
+        assertEquals(nodes.get("g:y:1").getConfigurations(), Sets.newHashSet("compileClasspath", "runtimeClasspath"));
+        assertEquals(nodes.get("g:z:1").getConfigurations(), Sets.newHashSet("testRuntimeClasspath"));
+    }
+
+    /**
+     * A memo cleared for another project recomputes the children of its components, and keeps counting for the task.
+     */
+    @Test
+    public void testAddConfiguration_clearedComponentMemo_keepsCounts() {
+        ComponentIdentifier xId = mock(ModuleComponentIdentifier.class);
+        ComponentIdentifier yId = mock(ModuleComponentIdentifier.class);
+        ComponentMemo memo = new ComponentMemo();
+        for (String projectName : new String[]{"api", "shared"}) {
+            memo.clear();
+            DependencyGraphBuilder graph = new DependencyGraphBuilder(projectName, new SymbolTable(), new SymbolTable());
+            for (String configurationName : new String[]{"compileClasspath", "runtimeClasspath"}) {
+                ResolvedComponentResult x = component("g:x:1", xId);
+                doReturn(setOf(dependencyOn(component("g:y:1", yId)))).when(x).getDependencies();
+                ResolvedComponentResult rootComponent = mock(ResolvedComponentResult.class);
+                doReturn(setOf(dependencyOn(x))).when(rootComponent).getDependencies();
+                addConfiguration(null, graph, resolvableConfiguration(configurationName, rootComponent), memo);
+            }
+        }
+        assertEquals(memo.getHits(), 4);
+        assertEquals(memo.getMisses(), 4);
+    }
+
+    /**
+     * Regression: a pathological 10,000-deep chain used to overflow the stack of the Gradle daemon when the tree was
+     * populated recursively.
+     */
+    @Test
+    public void testAddConfiguration_deepChain_doesNotOverflowStack() {
+        int depth = 10_000;
+        ResolvedComponentResult next = component("g:m" + depth + ":1");
+        for (int i = depth - 1; i >= 1; i--) {
+            ResolvedComponentResult current = component("g:m" + i + ":1");
+            doReturn(setOf(dependencyOn(next))).when(current).getDependencies();
+            next = current;
+        }
+        ResolvedComponentResult rootComponent = mock(ResolvedComponentResult.class);
+        doReturn(setOf(dependencyOn(next))).when(rootComponent).getDependencies();
+
+        GradleDependencyNode root = new GradleDependencyNode();
+        Map<String, GradleDependencyNode> nodes = new HashMap<>();
+        nodes.put("root", root);
+
+        addConfiguration(null, root, resolvableConfiguration("runtimeClasspath", rootComponent), nodes);
+
+        assertEquals(nodes.size(), depth + 1);
+        assertEquals(root.getChildren(), Sets.newHashSet("g:m1:1"));
+        assertEquals(nodes.get("g:m" + (depth - 1) + ":1").getChildren(), Sets.newHashSet("g:m" + depth + ":1"));
+        assertTrue(nodes.get("g:m" + depth + ":1").getChildren().isEmpty());
+    }
+
+    private static ResolvedComponentResult component(String moduleId, ComponentIdentifier id) {
+        ResolvedComponentResult component = component(moduleId);
+        when(component.getId()).thenReturn(id);
+        return component;
+    }
+
+    private static ResolvedComponentResult component(String moduleId) {
+        ModuleVersionIdentifier moduleVersion = mock(ModuleVersionIdentifier.class);
+        when(moduleVersion.toString()).thenReturn(moduleId);
+        ResolvedComponentResult component = mock(ResolvedComponentResult.class);
+        when(component.getModuleVersion()).thenReturn(moduleVersion);
+        doReturn(Collections.emptySet()).when(component).getDependencies();
+        return component;
+    }
+
+    private static ResolvedDependencyResult dependencyOn(ResolvedComponentResult selected) {
+        ResolvedDependencyResult dependency = mock(ResolvedDependencyResult.class);
+        when(dependency.getSelected()).thenReturn(selected);
+        return dependency;
+    }
+
+    private static Configuration resolvableConfiguration(String name, ResolvedComponentResult rootComponent) {
+        ResolutionResult resolutionResult = mock(ResolutionResult.class);
+        when(resolutionResult.getRoot()).thenReturn(rootComponent);
+        ResolvableDependencies incoming = mock(ResolvableDependencies.class);
+        when(incoming.getResolutionResult()).thenReturn(resolutionResult);
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.isCanBeResolved()).thenReturn(true);
+        when(configuration.getName()).thenReturn(name);
+        when(configuration.getIncoming()).thenReturn(incoming);
+        return configuration;
+    }
+
+    @SafeVarargs
+    private static <T extends DependencyResult> Set<DependencyResult> setOf(T... items) {
+        return new LinkedHashSet<>(Arrays.asList(items));
     }
 }
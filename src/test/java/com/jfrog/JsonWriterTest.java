@@ -0,0 +1,86 @@
+package com.jfrog;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static java.lang.System.lineSeparator;
+import static org.testng.Assert.assertEquals;
+
+public class JsonWriterTest {
+
+    @Test
+    public void testWriteObject() throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginObject();
+            writer.name("root").value("a");
+            writer.name("nodes").beginObject();
+            writer.name("a").beginObject();
+            writer.name("unresolved").value(true);
+            writer.name("children").stringArray(Arrays.asList("c", "b"), true);
+            writer.name("configurations").stringArray(Arrays.asList("z", "y"), false);
+            writer.endObject();
+            writer.name("empty").beginObject().endObject();
+            writer.endObject();
+            writer.endObject();
+        }
+        String expected = String.join(lineSeparator(),
+                "{",
+                "  \"root\": \"a\",",
+                "  \"nodes\": {",
+                "    \"a\": {",
+                "      \"unresolved\": true,",
+                "      \"children\": [\"b\", \"c\"],",
+                "      \"configurations\": [\"z\", \"y\"]",
+                "    },",
+                "    \"empty\": {}",
+                "  }",
+                "}");
+        assertEquals(out.toString(), expected);
+    }
+
+    @Test
+    public void testWriteCompactObject() throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out, false)) {
+            writer.beginObject();
+            writer.name("root").value("a b");
+            writer.name("a").beginObject();
+            writer.name("unresolved").value(false);
+            writer.name("children").stringArray(Arrays.asList("c", "b"), true);
+            writer.endObject();
+            writer.endObject();
+        }
+        assertEquals(out.toString(), "{\"root\":\"a b\",\"a\":{\"unresolved\":false,\"children\":[\"b\",\"c\"]}}");
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginArray();
+            writer.value("quote\" backslash\\ newline\n tab\t control\u0001 separator\u2028 unicodeé");
+            writer.value("");
+            writer.endArray();
+        }
+        assertEquals(out.toString(), "[\"quote\\\" backslash\\\\ newline\\n tab\\t control\\u0001 separator\\u2028 unicodeé\", \"\"]");
+    }
+
+    @Test
+    public void testLongStrings() throws IOException {
+        // Longer than the internal buffer
+        char[] chars = new char[200_000];
+        Arrays.fill(chars, 'a');
+        chars[150_000] = '"';
+        String value = new String(chars);
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginArray().value(value).value(value).endArray();
+        }
+        String escaped = "\"" + value.replace("\"", "\\\"") + "\"";
+        assertEquals(out.toString(), "[" + escaped + ", " + escaped + "]");
+    }
+}
@@ -0,0 +1,207 @@
+package com.jfrog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.testng.Reporter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.*;
+
+public class LazyDepTreeReaderTest {
+    private static final Path RESOURCES_DIR = Paths.get("src", "test", "resources");
+    private Path tempDirPath;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDirPath = Files.createTempDirectory("testLazyDepTreeReader");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDirPath.toFile());
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        LazyDepTreeReader reader = LazyDepTreeReader.open(RESOURCES_DIR.resolve("expectedDepTree.json").toFile());
+        assertEquals(reader.getRoot(), "dep");
+        assertEquals(reader.size(), 3);
+        assertEquals(toList(reader.getIds()), Arrays.asList("child-1", "child-2", "dep"));
+
+        LazyDepTreeReader.Node dep = reader.getNode("dep");
+        assertEquals(dep.getId(), "dep");
+        assertFalse(dep.isUnresolved());
+        assertNull(dep.getHash());
+        assertEquals(dep.getConfigurations(), Collections.singletonList("configuration-1"));
+        assertEquals(toList(dep.getChildren()), Arrays.asList("child-1", "child-2"));
+        LazyDepTreeReader.Node child1 = reader.getNode("child-1");
+        assertTrue(child1.isUnresolved());
+        assertEquals(child1.getConfigurations(), Arrays.asList("configuration-1", "configuration-2"));
+        assertFalse(child1.getChildren().iterator().hasNext());
+
+        assertNull(reader.getNode("unknown"));
+        assertFalse(reader.contains("child"));
+        assertTrue(reader.contains("child-2"));
+    }
+
+    @Test
+    public void testReadCompactWithHashesAndEscapes() throws IOException {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("org:root:1.0", moduleIds, configurationNames);
+        int compile = configurationNames.intern("compile\tClasspath");
+        String escaped = "org:\"quoted\\\" ünicode   \u0001:2.0";
+        int child = builder.addResolvedChild(ROOT, moduleIds.intern(escaped), compile);
+        builder.addUnresolvedChild(child, moduleIds.intern("org:missing:404"), compile);
+        FrozenDependencyGraph graph = builder.freeze();
+        String[] hashes = NodeHashes.compute(graph);
+
+        File outputFile = tempDirPath.resolve("output.json").toFile();
+        Utils.saveToFileAsJson(outputFile, graph, JsonOutputOptions.DEFAULT.compact(true).nodeHashes(true));
+        LazyDepTreeReader reader = LazyDepTreeReader.open(outputFile);
+        assertEquals(reader.getRoot(), "org:root:1.0");
+        assertEquals(reader.size(), 3);
+        LazyDepTreeReader.Node node = reader.getNode(escaped);
+        assertNotNull(node);
+        assertEquals(node.getHash(), hashes[graph.getNode(escaped)]);
+        assertEquals(node.getConfigurations(), Collections.singletonList("compile\tClasspath"));
+        assertEquals(toList(node.getChildren()), Collections.singletonList("org:missing:404"));
+        assertTrue(reader.getNode("org:missing:404").isUnresolved());
+        assertEquals(toList(reader.getNode("org:root:1.0").getChildren()), Collections.singletonList(escaped));
+    }
+
+    @Test
+    public void testReadJacksonOutput() throws IOException {
+        // Trees re-serialized by consumers have other whitespace and member order
+        File inputFile = tempDirPath.resolve("input.json").toFile();
+        FileUtils.writeStringToFile(inputFile, "{ \"nodes\" : { \"b\" : { \"children\" : [ ], \"unresolved\" : true, \"extra\" : {\"a\": [1, null, -2.5e3]} },\n" +
+                "\"a\" : { \"configurations\" : [ \"compileClasspath\" ], \"children\" : [ \"b\" ] } }, \"root\" : \"a\" }", StandardCharsets.UTF_8);
+        LazyDepTreeReader reader = LazyDepTreeReader.open(inputFile);
+        assertEquals(reader.getRoot(), "a");
+        assertEquals(toList(reader.getNode("a").getChildren()), Collections.singletonList("b"));
+        assertFalse(reader.getNode("a").isUnresolved());
+        assertTrue(reader.getNode("b").isUnresolved());
+        assertTrue(reader.getNode("b").getConfigurations().isEmpty());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadTruncated() throws IOException {
+        File inputFile = tempDirPath.resolve("input.json").toFile();
+        FileUtils.writeStringToFile(inputFile, "{\"root\":\"a\",\"nodes\":{\"a\":{\"children\":[\"b\"", StandardCharsets.UTF_8);
+        LazyDepTreeReader.open(inputFile);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Not a JSON dependency tree.*")
+    public void testReadMissingRoot() throws IOException {
+        File inputFile = tempDirPath.resolve("input.json").toFile();
+        FileUtils.writeStringToFile(inputFile, "{\"nodes\":{}}", StandardCharsets.UTF_8);
+        LazyDepTreeReader.open(inputFile);
+    }
+
+    /**
+     * Compare the lazy reader with the full deserialization of a large tree by Jackson. The timings and heap readings
+     * are reported, not asserted, since they depend on the JVM and on when the garbage collector runs. Run by the
+     * benchmark task, not by the unit tests.
+     */
+    @Test(groups = "benchmark")
+    public void testBenchmarkAgainstJackson() throws IOException {
+        // A synthetic tree of 20,000 nodes with about 200,000 edges
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int nodesCount = 20_000;
+        for (int i = 1; i < nodesCount; i++) {
+            int node = builder.addResolvedChild(ROOT, moduleIds.intern(moduleId(i)), i % 20);
+            configurationNames.intern("configuration-" + i % 20);
+            builder.addConfiguration(node, (i + 1) % 20);
+        }
+        for (int node = 1; node < nodesCount; node++) {
+            for (int i = 1; i < 10; i++) {
+                builder.addEdge(node, (node * 31 + i * 7919) % nodesCount);
+            }
+        }
+        File treeFile = tempDirPath.resolve("tree.json").toFile();
+        Utils.saveToFileAsJson(treeFile, builder.freeze());
+        builder = null;
+        String[] sampleIds = {"root", moduleId(1), moduleId(nodesCount - 1)};
+
+        long baseline = usedHeap();
+        long start = System.nanoTime();
+        GradleDepTreeResults results = new ObjectMapper().readValue(treeFile, GradleDepTreeResults.class);
+        long jacksonNanos = System.nanoTime() - start;
+        long jacksonHeap = usedHeap() - baseline;
+        Map<String, GradleDependencyNode> jacksonNodes = results.getNodes();
+        assertEquals(jacksonNodes.size(), nodesCount);
+
+        baseline = usedHeap();
+        start = System.nanoTime();
+        LazyDepTreeReader reader = LazyDepTreeReader.open(treeFile);
+        long lazyNanos = System.nanoTime() - start;
+        long lazyHeap = usedHeap() - baseline;
+        assertEquals(reader.size(), nodesCount);
+
+        // The lazy reader returns the same nodes
+        for (String id : sampleIds) {
+            LazyDepTreeReader.Node node = reader.getNode(id);
+            assertEquals(new HashSet<>(toList(node.getChildren())), jacksonNodes.get(id).getChildren(), id);
+            assertEquals(new HashSet<>(node.getConfigurations()), jacksonNodes.get(id).getConfigurations(), id);
+        }
+        start = System.nanoTime();
+        int edges = 0;
+        for (String id : reader.getIds()) {
+            for (String ignored : reader.getNode(id).getChildren()) {
+                edges++;
+            }
+        }
+        long traversalNanos = System.nanoTime() - start;
+        Set<String> ids = jacksonNodes.keySet();
+        assertEquals(edges, ids.stream().mapToInt(id -> jacksonNodes.get(id).getChildren().size()).sum());
+
+        Reporter.log(String.format("%,d bytes tree: Jackson %,d ms and %,d bytes of heap, lazy reader %,d ms and %,d bytes " +
+                        "of heap, then %,d ms to visit all edges", treeFile.length(), jacksonNanos / 1_000_000, jacksonHeap,
+                lazyNanos / 1_000_000, lazyHeap, traversalNanos / 1_000_000), true);
+    }
+
+    private static String moduleId(int i) {
+        return "group-" + i % 100 + ":artifact-" + i + ":1.0." + i % 7;
+    }
+
+    private static List<String> toList(Iterable<String> values) {
+        List<String> list = new ArrayList<>();
+        values.forEach(list::add);
+        return list;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // System.gc() is only a hint - collect a few times and keep the lowest reading
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,117 @@
+package com.jfrog;
+
+import org.testng.annotations.Test;
+
+import static com.jfrog.DependencyGraphBuilder.ROOT;
+import static org.testng.Assert.*;
+
+public class NodeHashesTest {
+
+    @Test
+    public void testSameSubgraphSameHash() {
+        FrozenDependencyGraph app = createGraph("app", null, "app>a", "app>b", "a>c", "b>c", "c>d");
+        FrozenDependencyGraph lib = createGraph("lib", null, "lib>b", "b>c", "c>d");
+        String[] appHashes = NodeHashes.compute(app);
+        String[] libHashes = NodeHashes.compute(lib);
+        // The subgraphs reachable from b, c and d are identical across projects
+        for (String id : new String[]{"b", "c", "d"}) {
+            assertEquals(appHashes[app.getNode(id)], libHashes[lib.getNode(id)], id);
+        }
+        assertNotEquals(appHashes[app.getRootNode()], libHashes[lib.getRootNode()]);
+        assertNotEquals(appHashes[app.getNode("a")], appHashes[app.getNode("b")]);
+        for (String hash : appHashes) {
+            assertTrue(hash.matches("[0-9a-f]{64}"), hash);
+        }
+    }
+
+    @Test
+    public void testChangePropagatesToAncestors() {
+        FrozenDependencyGraph resolved = createGraph("app", null, "app>a", "app>b", "a>c");
+        FrozenDependencyGraph unresolved = createGraph("app", "c", "app>a", "app>b", "a>c");
+        String[] resolvedHashes = NodeHashes.compute(resolved);
+        String[] unresolvedHashes = NodeHashes.compute(unresolved);
+        for (String id : new String[]{"app", "a", "c"}) {
+            assertNotEquals(resolvedHashes[resolved.getNode(id)], unresolvedHashes[unresolved.getNode(id)], id);
+        }
+        assertEquals(resolvedHashes[resolved.getNode("b")], unresolvedHashes[unresolved.getNode("b")]);
+
+        // An extra edge changes the hashes of its ancestors only
+        FrozenDependencyGraph extraEdge = createGraph("app", null, "app>a", "app>b", "a>c", "b>d");
+        String[] extraEdgeHashes = NodeHashes.compute(extraEdge);
+        assertNotEquals(resolvedHashes[resolved.getNode("b")], extraEdgeHashes[extraEdge.getNode("b")]);
+        assertEquals(resolvedHashes[resolved.getNode("a")], extraEdgeHashes[extraEdge.getNode("a")]);
+    }
+
+    @Test
+    public void testIndependentOfInsertionOrderAndConfigurations() {
+        FrozenDependencyGraph first = createGraph("app", null, "app>a", "app>b", "a>c", "b>c");
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("app", moduleIds, configurationNames);
+        int b = builder.addResolvedChild(ROOT, moduleIds.intern("b"), configurationNames.intern("testRuntimeClasspath"));
+        int c = builder.addResolvedChild(b, moduleIds.intern("c"), configurationNames.intern("testRuntimeClasspath"));
+        int a = builder.addResolvedChild(ROOT, moduleIds.intern("a"), configurationNames.intern("compileClasspath"));
+        builder.addEdge(a, c);
+        FrozenDependencyGraph second = builder.freeze();
+        assertEquals(NodeHashes.compute(second), NodeHashes.compute(first));
+    }
+
+    @Test
+    public void testCycles() {
+        // a and b are on a cycle, and b also depends on c outside of it
+        FrozenDependencyGraph graph = createGraph("app", null, "app>a", "a>b", "b>a", "b>c", "c>c");
+        String[] hashes = NodeHashes.compute(graph);
+        assertNotEquals(hashes[graph.getNode("a")], hashes[graph.getNode("b")]);
+
+        // The same cycle, entered from b instead of a
+        FrozenDependencyGraph reversed = createGraph("app", null, "app>b", "b>a", "a>b", "b>c", "c>c");
+        String[] reversedHashes = NodeHashes.compute(reversed);
+        assertEquals(reversedHashes[reversed.getNode("a")], hashes[graph.getNode("a")]);
+        assertEquals(reversedHashes[reversed.getNode("b")], hashes[graph.getNode("b")]);
+        assertEquals(reversedHashes[reversed.getNode("c")], hashes[graph.getNode("c")]);
+        assertNotEquals(reversedHashes[reversed.getRootNode()], hashes[graph.getRootNode()]);
+
+        // A self-loop is part of the content of the node
+        FrozenDependencyGraph noLoop = createGraph("app", null, "app>a", "a>b", "b>a", "b>c");
+        assertNotEquals(NodeHashes.compute(noLoop)[noLoop.getNode("c")], hashes[graph.getNode("c")]);
+        assertNotEquals(NodeHashes.compute(noLoop)[noLoop.getNode("a")], hashes[graph.getNode("a")]);
+    }
+
+    @Test
+    public void testDeepGraph() {
+        // The traversal is iterative, so a deep chain doesn't overflow the stack
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int configuration = configurationNames.intern("compileClasspath");
+        int parent = ROOT;
+        for (int i = 0; i < 100_000; i++) {
+            parent = builder.addResolvedChild(parent, moduleIds.intern("org:module:" + i), configuration);
+        }
+        builder.addEdge(parent, ROOT);
+        String[] hashes = NodeHashes.compute(builder.freeze());
+        assertEquals(hashes.length, 100_001);
+    }
+
+    /**
+     * @param rootId       the module ID of the root
+     * @param unresolvedId the module ID of an unresolved node, or null
+     * @param edges        edges in the form of "parent>child", where each parent is already in the graph
+     */
+    private static FrozenDependencyGraph createGraph(String rootId, String unresolvedId, String... edges) {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder(rootId, moduleIds, configurationNames);
+        int configuration = configurationNames.intern("compileClasspath");
+        for (String edge : edges) {
+            String[] parts = edge.split(">");
+            int parent = builder.getNode(moduleIds.intern(parts[0]));
+            if (parts[1].equals(unresolvedId)) {
+                builder.addUnresolvedChild(parent, moduleIds.intern(parts[1]), configuration);
+            } else {
+                builder.addResolvedChild(parent, moduleIds.intern(parts[1]), configuration);
+            }
+        }
+        return builder.freeze();
+    }
+}
@@ -0,0 +1,98 @@
+package com.jfrog;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.GradleException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.testng.Assert.*;
+
+public class ParallelFileWriterTest {
+    private Path tempDirPath;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDirPath = Files.createTempDirectory("testParallelFileWriter");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDirPath.toFile());
+    }
+
+    @Test
+    public void testWriteFiles() throws IOException {
+        try (ParallelFileWriter writer = new ParallelFileWriter(2)) {
+            for (int i = 0; i < 50; i++) {
+                String content = "content-" + i;
+                writer.submit(tempDirPath.resolve("file-" + i).toFile(), file -> write(file, content));
+            }
+            writer.awaitCompletion();
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(read(tempDirPath.resolve("file-" + i).toFile()), "content-" + i);
+        }
+        // No temporary files are left behind
+        assertEquals(tempDirPath.toFile().list().length, 50);
+    }
+
+    @Test
+    public void testWriteAtomically() throws IOException {
+        File outputFile = tempDirPath.resolve("file").toFile();
+        write(outputFile, "previous run");
+        ParallelFileWriter.writeAtomically(outputFile, file -> {
+            // The content is written to a temporary file in the same directory, while the output file is intact
+            assertNotEquals(file, outputFile);
+            assertEquals(file.getParentFile().getAbsoluteFile(), outputFile.getParentFile().getAbsoluteFile());
+            assertTrue(file.getName().endsWith(ParallelFileWriter.TEMP_FILE_SUFFIX));
+            write(file, "current run");
+            assertEquals(read(outputFile), "previous run");
+        });
+        assertEquals(read(outputFile), "current run");
+        assertEquals(tempDirPath.toFile().list().length, 1);
+    }
+
+    @Test
+    public void testWriteFailure() throws IOException {
+        File outputFile = tempDirPath.resolve("file").toFile();
+        write(outputFile, "previous run");
+        try (ParallelFileWriter writer = new ParallelFileWriter(2)) {
+            writer.submit(outputFile, file -> {
+                write(file, "partial content");
+                throw new GradleException("Write failed");
+            });
+            writer.submit(tempDirPath.resolve("other").toFile(), file -> write(file, "other content"));
+            writer.awaitCompletion();
+            fail("Expected the write failure to be propagated");
+        } catch (GradleException e) {
+            assertEquals(e.getMessage(), "Write failed");
+        }
+        // The failed write leaves neither a partial output file nor a temporary file
+        assertEquals(read(outputFile), "previous run");
+        assertEquals(read(tempDirPath.resolve("other").toFile()), "other content");
+        assertEquals(tempDirPath.toFile().list().length, 2);
+    }
+
+    private static void write(File file, String content) {
+        try {
+            FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException(e.getMessage(), e);
+        }
+    }
+
+    private static String read(File file) {
+        try {
+            return FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jfrog;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+public class ResolutionCacheTest {
+    private Path tempDirPath;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDirPath = Files.createTempDirectory("testResolutionCache");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDirPath.toFile());
+    }
+
+    @Test
+    public void testReplay() {
+        // Resolve the configuration after another one, as when it is not cached
+        DependencyGraphBuilder resolved = newGraph();
+        populateCompileClasspath(resolved, null);
+        ResolutionTrace trace = new ResolutionTrace();
+        populateTestCompileClasspath(resolved, trace);
+
+        ResolutionCache cache = new ResolutionCache(tempDirPath.toFile(), 1 << 20);
+        cache.put("key", trace);
+        ResolutionTrace cached = cache.get("key");
+        assertNotNull(cached);
+        assertEquals(cached.size(), trace.size());
+
+        DependencyGraphBuilder replayed = newGraph();
+        populateCompileClasspath(replayed, null);
+        cached.replay(replayed, replayed.getConfigurationNames().intern("testCompileClasspath"));
+        assertTrue(new DependencyGraphDelta(resolved.freeze(), replayed.freeze()).isEmpty());
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 0);
+    }
+
+    @Test
+    public void testReplayOnEmptyGraph() {
+        DependencyGraphBuilder resolved = newGraph();
+        ResolutionTrace trace = new ResolutionTrace();
+        populateTestCompileClasspath(resolved, trace);
+
+        DependencyGraphBuilder replayed = newGraph();
+        trace.replay(replayed, replayed.getConfigurationNames().intern("testCompileClasspath"));
+        assertTrue(new DependencyGraphDelta(resolved.freeze(), replayed.freeze()).isEmpty());
+    }
+
+    @Test
+    public void testMiss() throws IOException {
+        ResolutionCache cache = new ResolutionCache(tempDirPath.toFile(), 1 << 20);
+        assertNull(cache.get("missing"));
+
+        // A corrupted entry is a miss, and is overwritten by the next put
+        Files.write(tempDirPath.resolve("corrupted" + ResolutionCache.ENTRY_EXTENSION), "{}".getBytes(StandardCharsets.UTF_8));
+        assertNull(cache.get("corrupted"));
+        assertEquals(cache.getMisses(), 2);
+        assertEquals(cache.getHits(), 0);
+
+        ResolutionTrace trace = new ResolutionTrace();
+        populateTestCompileClasspath(newGraph(), trace);
+        cache.put("corrupted", trace);
+        assertNotNull(cache.get("corrupted"));
+    }
+
+    @Test
+    public void testNamedEntries() {
+        ResolutionTrace trace = new ResolutionTrace();
+        populateTestCompileClasspath(newGraph(), trace);
+        ResolutionCache store = new ResolutionCache(tempDirPath.toFile(), Long.MAX_VALUE);
+        store.put("compileClasspath", "key1", trace);
+        store.put("testCompileClasspath", "key2", trace);
+        assertNotNull(store.get("compileClasspath", "key1"));
+        // The inputs of the configuration changed since it was stored
+        assertNull(store.get("testCompileClasspath", "key3"));
+        store.put("testCompileClasspath", "key3", trace);
+        assertNotNull(store.get("testCompileClasspath", "key3"));
+        assertNull(store.get("testCompileClasspath", "key2"));
+        assertEquals(store.getHits(), 2);
+        assertEquals(store.getMisses(), 2);
+
+        store.retain(Collections.singleton("testCompileClasspath"));
+        assertFalse(getEntry("compileClasspath").exists());
+        assertTrue(getEntry("testCompileClasspath").exists());
+        assertEquals(tempDirPath.toFile().list().length, 1);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        ResolutionTrace trace = new ResolutionTrace();
+        populateTestCompileClasspath(newGraph(), trace);
+        ResolutionCache cache = new ResolutionCache(tempDirPath.toFile(), Long.MAX_VALUE);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            cache.put("key" + i, trace);
+            assertTrue(getEntry("key" + i).setLastModified(now - (4 - i) * 60_000L));
+        }
+        // Use the oldest entry
+        assertNotNull(cache.get("key0"));
+        long entrySize = getEntry("key0").length();
+
+        ResolutionCache capped = new ResolutionCache(tempDirPath.toFile(), entrySize * 2);
+        capped.evict();
+        assertEquals(capped.getEvictions(), 2);
+        assertTrue(getEntry("key0").exists());
+        assertFalse(getEntry("key1").exists());
+        assertFalse(getEntry("key2").exists());
+        assertTrue(getEntry("key3").exists());
+    }
+
+    private File getEntry(String key) {
+        return tempDirPath.resolve(key + ResolutionCache.ENTRY_EXTENSION).toFile();
+    }
+
+    private static DependencyGraphBuilder newGraph() {
+        return new DependencyGraphBuilder("org.example:project:1.0", new SymbolTable(), new SymbolTable());
+    }
+
+    private static void populateCompileClasspath(DependencyGraphBuilder graph, ResolutionTrace trace) {
+        int configuration = graph.getConfigurationNames().intern("compileClasspath");
+        graph.addConfiguration(DependencyGraphBuilder.ROOT, configuration);
+        addResolvedChild(graph, trace, DependencyGraphBuilder.ROOT, "commons-io:commons-io:2.11.0", configuration);
+        addUnresolvedChild(graph, trace, DependencyGraphBuilder.ROOT, "org.example:missing:1.0", configuration);
+    }
+
+    private static void populateTestCompileClasspath(DependencyGraphBuilder graph, ResolutionTrace trace) {
+        int configuration = graph.getConfigurationNames().intern("testCompileClasspath");
+        graph.addConfiguration(DependencyGraphBuilder.ROOT, configuration);
+        int junit = addResolvedChild(graph, trace, DependencyGraphBuilder.ROOT, "junit:junit:4.13.2", configuration);
+        int hamcrest = addResolvedChild(graph, trace, junit, "org.hamcrest:hamcrest-core:1.3", configuration);
+        int commonsIo = addResolvedChild(graph, trace, DependencyGraphBuilder.ROOT, "commons-io:commons-io:2.11.0", configuration);
+        // An edge to a component already visited by this configuration
+        graph.addEdge(commonsIo, hamcrest);
+        trace.record(graph, ResolutionTrace.EDGE, commonsIo, hamcrest);
+        // Resolved by this configuration only
+        addResolvedChild(graph, trace, DependencyGraphBuilder.ROOT, "org.example:missing:1.0", configuration);
+    }
+
+    private static int addResolvedChild(DependencyGraphBuilder graph, ResolutionTrace trace, int parent, String id, int configuration) {
+        int child = graph.addResolvedChild(parent, graph.getModuleIds().intern(id), configuration);
+        if (trace != null) {
+            trace.record(graph, ResolutionTrace.RESOLVED_CHILD, parent, child);
+        }
+        return child;
+    }
+
+    private static void addUnresolvedChild(DependencyGraphBuilder graph, ResolutionTrace trace, int parent, String id, int configuration) {
+        int symbol = graph.getModuleIds().intern(id);
+        graph.addUnresolvedChild(parent, symbol, configuration);
+        if (trace != null) {
+            trace.record(graph, ResolutionTrace.UNRESOLVED_CHILD, parent, graph.getNode(symbol));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.jfrog;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionsInternal;
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultCapabilitiesResolution;
+import org.gradle.api.logging.Logger;
+import org.gradle.internal.ImmutableActionSet;
+import org.gradle.util.GradleVersion;
+import org.testng.annotations.Test;
+
+import static com.jfrog.ResolutionRules.UNREADABLE_WARNING;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ResolutionRulesTest {
+
+    @Test
+    public void testHasResolutionRules_noRules() {
+        Logger logger = mock(Logger.class);
+        ResolutionRules resolutionRules = new ResolutionRules(logger, GradleVersion.version("9.1"));
+        assertFalse(resolutionRules.hasResolutionRules(configuration(mock(DependencySubstitutionsInternal.class))));
+        verify(logger, never()).warn(UNREADABLE_WARNING, "Gradle 9.1 is not supported");
+    }
+
+    @Test
+    public void testHasResolutionRules_substitutionRule() {
+        DependencySubstitutionsInternal substitutions = mock(DependencySubstitutionsInternal.class);
+        Configuration configuration = configuration(substitutions);
+        when(substitutions.getRuleAction()).thenReturn(ImmutableActionSet.of(substitution -> {
+        }));
+        assertTrue(new ResolutionRules(mock(Logger.class), GradleVersion.version("9.1")).hasResolutionRules(configuration));
+    }
+
+    @Test
+    public void testHasResolutionRules_dependencyLocking() {
+        Configuration configuration = configuration(mock(DependencySubstitutionsInternal.class));
+        ResolutionStrategyInternal resolutionStrategy = (ResolutionStrategyInternal) configuration.getResolutionStrategy();
+        when(resolutionStrategy.isDependencyLockingEnabled()).thenReturn(true);
+        assertTrue(new ResolutionRules(mock(Logger.class), GradleVersion.version("9.1")).hasResolutionRules(configuration));
+    }
+
+    @Test
+    public void testHasResolutionRules_unsupportedVersion_warnsOnce() {
+        Logger logger = mock(Logger.class);
+        ResolutionRules resolutionRules = new ResolutionRules(logger, GradleVersion.version("5.5"));
+        Configuration configuration = configuration(mock(DependencySubstitutionsInternal.class));
+        assertTrue(resolutionRules.hasResolutionRules(configuration));
+        assertTrue(resolutionRules.hasResolutionRules(configuration));
+        verify(logger, times(1)).warn(UNREADABLE_WARNING, "Gradle 5.5 is not supported");
+    }
+
+    private static Configuration configuration(DependencySubstitutionsInternal substitutions) {
+        when(substitutions.getRuleAction()).thenReturn(ImmutableActionSet.empty());
+        ResolutionStrategyInternal resolutionStrategy = mock(ResolutionStrategyInternal.class);
+        when(resolutionStrategy.getDependencySubstitution()).thenReturn(substitutions);
+        when(resolutionStrategy.getComponentSelection()).thenReturn(mock(ComponentSelectionRulesInternal.class));
+        when(resolutionStrategy.getCapabilitiesResolution()).thenReturn(new DefaultCapabilitiesResolution(null, null));
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getResolutionStrategy()).thenReturn(resolutionStrategy);
+        return configuration;
+    }
+}
@@ -1,22 +1,26 @@
 package com.jfrog;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static com.jfrog.Utils.UNSPECIFIED_ID_PART;
 import static com.jfrog.Utils.buildModuleId;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author yahavi
@@ -63,6 +67,43 @@ public class UtilsTest {
         assertEquals(actualOutput, expectedOutput);
     }
 
+    @Test
+    public void testSaveToFileAsGzippedJson() throws IOException {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        int configuration = configurationNames.intern("configuration-1");
+        for (int i = 0; i < 1000; i++) {
+            builder.addResolvedChild(DependencyGraphBuilder.ROOT, moduleIds.intern("group:artifact-" + i + ":1.0.0"), configuration);
+        }
+        FrozenDependencyGraph graph = builder.freeze();
+        File plainFile = tempDirPath.resolve("output.json").toFile();
+        File gzipFile = tempDirPath.resolve("output.json" + Utils.GZIP_EXTENSION).toFile();
+        Utils.saveToFileAsJson(plainFile, graph, JsonOutputOptions.DEFAULT);
+        Utils.saveToFileAsJson(gzipFile, graph, JsonOutputOptions.DEFAULT.gzip(true));
+
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(gzipFile.toPath()))) {
+            assertEquals(IOUtils.toString(inputStream, StandardCharsets.UTF_8), FileUtils.readFileToString(plainFile, StandardCharsets.UTF_8));
+        }
+        assertTrue(gzipFile.length() * 10 < plainFile.length());
+    }
+
+    @Test
+    public void testSaveToFileAsJsonWithNodeHashes() throws IOException {
+        SymbolTable moduleIds = new SymbolTable();
+        SymbolTable configurationNames = new SymbolTable();
+        DependencyGraphBuilder builder = new DependencyGraphBuilder("root", moduleIds, configurationNames);
+        builder.addResolvedChild(DependencyGraphBuilder.ROOT, moduleIds.intern("child"), configurationNames.intern("configuration-1"));
+        FrozenDependencyGraph graph = builder.freeze();
+        String[] hashes = NodeHashes.compute(graph);
+        File outputFile = tempDirPath.resolve("output.json").toFile();
+        Utils.saveToFileAsJson(outputFile, graph, JsonOutputOptions.DEFAULT.compact(true).nodeHashes(true));
+
+        assertEquals(FileUtils.readFileToString(outputFile, StandardCharsets.UTF_8), "{\"root\":\"root\",\"nodes\":{" +
+                "\"child\":{\"unresolved\":false,\"hash\":\"" + hashes[graph.getNode("child")] + "\",\"configurations\":[\"configuration-1\"],\"children\":[]}," +
+                "\"root\":{\"unresolved\":false,\"hash\":\"" + hashes[graph.getRootNode()] + "\",\"configurations\":[],\"children\":[\"child\"]}}}");
+    }
+
     // buildModuleId is the single source of truth for the group:name:version placeholder
     // format used by both GenerateDepTrees#getProjectModuleId and synthesizeProjectNodeId.
 